@@ -0,0 +1,335 @@
+package fr.istic.se.projet;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+/**
+ * Harness measuring how often and how fast each execution mode of the trials finds the planted mincut of generated graphs.
+ * For every graph and every mode, it runs the given number of trials and reports the success probability of a trial,
+ * the mean time of a trial, the time of all the trials, the time elapsed until the first trial finding the planted cut,
+ * and the expected time to find it, which is the time of all the trials divided by the number of successes.
+ * The report is a JSON array with one object per graph and mode, so that a run can be compared to a reference one.
+ * Usage: AccuracyHarness [trials [reportFile]] [--compare referenceFile tolerance], the report being written to the standard output
+ * if no file is given. With --compare, the run is compared to the reference report, and the program exits with the status 1
+ * if a graph and mode regressed by more than the tolerance, see compare(List, String, double).
+ */
+public class AccuracyHarness
+{
+    //number of trials per graph and mode when none is given
+    private static final int DEFAULT_TRIALS = 200;
+    //graph, mode, success probability and expected time to correct of a measure of a report, one measure per line
+    private static final Pattern MEASURE_PATTERN = Pattern.compile(
+            "\\{\"graph\":(\"(?:[^\"\\\\]|\\\\.)*\"),\"mode\":\"(\\w+)\".*\"successProbability\":(-?[0-9.]+).*\"expectedTimeToCorrectMillis\":(-?[0-9.]+)\\}");
+
+    /**
+     * Execution mode of the trials
+     */
+    public enum Mode
+    {
+        //one trial after the other, each one contracted by Contraction.contract
+        SEQUENTIAL,
+        //all the trials at the same time on the common fork/join pool, each one contracted by Contraction.contract
+        PARALLEL_TRIALS,
+        //one trial after the other, each one contracted in parallel by Contraction.contractParallel
+        PARALLEL_CONTRACTION
+    }
+
+    /**
+     * Measures of the trials of one mode on one graph
+     */
+    public static class Measure
+    {
+        private final String graph;
+        private final Mode mode;
+        private final int trials;
+        private final int successes;
+        private final double meanTrialMillis;
+        private final double wallMillis;
+        private final double timeToCorrectMillis;
+
+        /**
+         * Create a new measure
+         * @param graph the name of the graph
+         * @param mode the execution mode
+         * @param trials the number of trials
+         * @param successes the number of trials which found the planted cut
+         * @param meanTrialMillis the mean time of a trial, in milliseconds
+         * @param wallMillis the time of all the trials, in milliseconds
+         * @param timeToCorrectMillis the time elapsed until the first success, in milliseconds, or -1 if no trial succeeded
+         */
+        Measure(String graph, Mode mode, int trials, int successes, double meanTrialMillis, double wallMillis, double timeToCorrectMillis)
+        {
+            this.graph = graph;
+            this.mode = mode;
+            this.trials = trials;
+            this.successes = successes;
+            this.meanTrialMillis = meanTrialMillis;
+            this.wallMillis = wallMillis;
+            this.timeToCorrectMillis = timeToCorrectMillis;
+        }
+
+        /**
+         * Return the key of the measure in a report: its graph, as a JSON string, and its mode
+         * @return the key
+         */
+        private String key()
+        {
+            return Quoting.json(graph) + " " + mode;
+        }
+
+        /**
+         * Return the empirical probability that a trial finds the planted cut
+         * @return the number of successes divided by the number of trials
+         */
+        public double getSuccessProbability()
+        {
+            return (double) successes / trials;
+        }
+
+        /**
+         * Getter for the meanTrialMillis attribute
+         * @return the mean time of a trial, in milliseconds
+         */
+        public double getMeanTrialMillis()
+        {
+            return meanTrialMillis;
+        }
+
+        /**
+         * Getter for the wallMillis attribute
+         * @return the time of all the trials, in milliseconds
+         */
+        public double getWallMillis()
+        {
+            return wallMillis;
+        }
+
+        /**
+         * Getter for the timeToCorrectMillis attribute
+         * @return the time elapsed until the first success, in milliseconds, or -1 if no trial succeeded
+         */
+        public double getTimeToCorrectMillis()
+        {
+            return timeToCorrectMillis;
+        }
+
+        /**
+         * Return the expected time to find the planted cut in this mode: the time of all the trials divided by the number of successes.
+         * Unlike the mean time of a trial divided by the success probability, it takes the trials running at the same time into account.
+         * @return the expected time in milliseconds, or -1 if no trial succeeded
+         */
+        public double getExpectedTimeToCorrectMillis()
+        {
+            return successes == 0 ? -1 : wallMillis / successes;
+        }
+
+        /**
+         * Return the measure as a JSON object
+         * @return the JSON object
+         */
+        public String toJson()
+        {
+            return String.format(Locale.ROOT,
+                    "{\"graph\":%s,\"mode\":\"%s\",\"trials\":%d,\"successes\":%d,\"successProbability\":%.6f,"
+                            + "\"meanTrialMillis\":%.6f,\"wallMillis\":%.6f,\"timeToCorrectMillis\":%.6f,\"expectedTimeToCorrectMillis\":%.6f}",
+                    Quoting.json(graph), mode, trials, successes, getSuccessProbability(),
+                    meanTrialMillis, wallMillis, timeToCorrectMillis, getExpectedTimeToCorrectMillis());
+        }
+    }
+
+    /**
+     * Hide the constructor
+     */
+    private AccuracyHarness()
+    {}
+
+    /**
+     * Generate the default graphs, run the harness on them and write the report, then compare it to a reference report if one is given.
+     * The graphs are closed at the end of the run.
+     * @param args the number of trials per graph and mode, the path of the report file, and --compare with the reference file and the tolerance
+     * @throws IOException if the report can not be written or the reference report can not be read
+     */
+    public static void main(String[] args) throws IOException
+    {
+        int compareIndex = Arrays.asList(args).indexOf("--compare");
+        if (compareIndex >= 0 && args.length < compareIndex + 3)
+            throw new IllegalArgumentException("--compare needs a reference file and a tolerance");
+
+        String[] positional = compareIndex < 0 ? args : Arrays.copyOf(args, compareIndex);
+        int trials = positional.length > 0 ? Integer.parseInt(positional[0]) : DEFAULT_TRIALS;
+        List<PlantedGraph> graphs = new ArrayList<>();
+        List<Measure> measures;
+        try
+        {
+            graphs.add(PlantedGraph.dumbbell(200, 3, null));
+            graphs.add(PlantedGraph.randomRegular(2000, 8, 5, 42, null));
+            graphs.add(PlantedGraph.gridWithWeakLinks(40, 40, 2, null));
+            measures = run(graphs, trials, 42);
+        }
+        finally
+        {
+            for (PlantedGraph graph : graphs)
+                graph.close();
+        }
+
+        String report = toJson(measures);
+        if (positional.length > 1)
+            Files.writeString(Path.of(positional[1]), report, StandardCharsets.UTF_8);
+        else
+        {
+            Writer out = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+            out.write(report);
+            out.write(System.lineSeparator());
+            out.flush();
+        }
+
+        if (compareIndex < 0)
+            return;
+
+        String reference = Files.readString(Path.of(args[compareIndex + 1]), StandardCharsets.UTF_8);
+        List<String> regressions = compare(measures, reference, Double.parseDouble(args[compareIndex + 2]));
+        for (String regression : regressions)
+            Logger.getGlobal().severe(regression);
+        if (!regressions.isEmpty())
+            System.exit(1);
+    }
+
+    /**
+     * Run the trials of every mode on every graph
+     * @param graphs the graphs with a planted cut
+     * @param trials the number of trials per graph and mode
+     * @param seed the base seed of the trials, the same trials being run in every mode
+     * @throws IllegalArgumentException if the list is null or the number of trials is lower than 1
+     * @return the measures, by graph then by mode
+     */
+    public static List<Measure> run(List<PlantedGraph> graphs, int trials, long seed)
+    {
+        if (graphs == null)
+            throw new IllegalArgumentException("The list must not be null");
+
+        if (trials < 1)
+            throw new IllegalArgumentException("There must be at least one trial");
+
+        List<Measure> res = new ArrayList<>();
+        for (PlantedGraph graph : graphs)
+        {
+            for (Mode mode : Mode.values())
+            {
+                Measure measure = measure(graph, mode, trials, seed);
+                Logger.getGlobal().info(measure.toJson());
+                res.add(measure);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Return the measures as a JSON array
+     * @param measures the measures
+     * @return the JSON array, one measure per line
+     */
+    public static String toJson(List<Measure> measures)
+    {
+        StringBuilder res = new StringBuilder("[");
+        for (int i = 0; i < measures.size(); i++)
+        {
+            res.append(i == 0 ? "\n  " : ",\n  ").append(measures.get(i).toJson());
+        }
+        return res.append("\n]").toString();
+    }
+
+    /**
+     * Compare the measures to the ones of a reference report, written by toJson, with the same graph and mode.
+     * A measure regressed if its success probability is lower than the reference one times (1 - tolerance),
+     * or if its expected time to correct is higher than the reference one times (1 + tolerance), no success counting as an infinite time.
+     * The measures without a reference are not compared.
+     * @param measures the measures of the run
+     * @param reference the reference report
+     * @param tolerance the relative difference allowed, at least 0
+     * @throws IllegalArgumentException if the list or the report is null, or the tolerance is negative
+     * @return a description of each regression, empty if there is none
+     */
+    public static List<String> compare(List<Measure> measures, String reference, double tolerance)
+    {
+        if (measures == null || reference == null)
+            throw new IllegalArgumentException("The measures and the reference must not be null");
+
+        if (!(tolerance >= 0))
+            throw new IllegalArgumentException("The tolerance must not be negative");
+
+        //success probability and expected time to correct of each graph and mode of the reference
+        Map<String, double[]> references = new HashMap<>();
+        Matcher matcher = MEASURE_PATTERN.matcher(reference);
+        while (matcher.find())
+            references.put(matcher.group(1) + " " + matcher.group(2), new double[]{Double.parseDouble(matcher.group(3)), Double.parseDouble(matcher.group(4))});
+
+        List<String> res = new ArrayList<>();
+        for (Measure measure : measures)
+        {
+            double[] expected = references.get(measure.key());
+            if (expected == null)
+                continue;
+
+            if (measure.getSuccessProbability() < expected[0] * (1 - tolerance))
+                res.add(String.format(Locale.ROOT, "%s: the success probability dropped from %.6f to %.6f", measure.key(), expected[0], measure.getSuccessProbability()));
+
+            double time = measure.getExpectedTimeToCorrectMillis();
+            if (expected[1] >= 0 && (time < 0 || time > expected[1] * (1 + tolerance)))
+                res.add(String.format(Locale.ROOT, "%s: the expected time to correct rose from %.6f ms to %.6f ms", measure.key(), expected[1], time));
+        }
+        return res;
+    }
+
+    /**
+     * Run the trials of one mode on one graph
+     * @param planted the graph with a planted cut
+     * @param mode the execution mode
+     * @param trials the number of trials
+     * @param seed the base seed of the trials
+     * @return the measure
+     */
+    private static Measure measure(PlantedGraph planted, Mode mode, int trials, long seed)
+    {
+        EdgeList graph = planted.getGraph();
+        boolean parallelContraction = mode == Mode.PARALLEL_CONTRACTION;
+        AtomicInteger successes = new AtomicInteger();
+        AtomicLong firstSuccess = new AtomicLong(Long.MAX_VALUE);
+        AtomicLong trialsNanos = new AtomicLong();
+
+        long start = System.nanoTime();
+        IntStream range = IntStream.range(0, trials);
+        if (mode == Mode.PARALLEL_TRIALS)
+            range = range.parallel();
+        range.forEach(i -> {
+            long trialStart = System.nanoTime();
+            Contraction.Result result = Contraction.trial(graph, 2, Contraction.trialSeed(seed, i), parallelContraction, () -> false);
+            long end = System.nanoTime();
+            trialsNanos.addAndGet(end - trialStart);
+            if (result.getValue() <= planted.getCutValue())
+            {
+                successes.incrementAndGet();
+                firstSuccess.accumulateAndGet(end - start, Math::min);
+            }
+        });
+
+        double wall = (System.nanoTime() - start) / 1e6;
+        double timeToCorrect = firstSuccess.get() == Long.MAX_VALUE ? -1 : firstSuccess.get() / 1e6;
+        return new Measure(planted.getName(), mode, trials, successes.get(), trialsNanos.get() / 1e6 / trials, wall, timeToCorrect);
+    }
+}
@@ -0,0 +1,197 @@
+package fr.istic.se.projet;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Class running the trials of the Karger's algorithm in the background, with a deadline.
+ * The best cut found so far is always known, it is published to a subscriber each time it improves,
+ * and the future completes with it when all the trials are done or when the deadline is reached, whichever comes first.
+ * The workers check the future between the trials and along the contraction, so they stop shortly after it completes or is cancelled.
+ */
+class AnytimeMinCut
+{
+    //daemon thread running the deadlines of all the searches, a deadline being removed as soon as its search completes
+    private static final ScheduledThreadPoolExecutor DEADLINES = createDeadlines();
+
+    private final IndexedGraph graph;
+    private final int numberOfIteration;
+    private final long seed;
+    private final boolean parallelContraction;
+    private final Consumer<Cut> subscriber;
+    private final CompletableFuture<Cut> future = new CompletableFuture<>();
+    private final AtomicInteger nextTrial = new AtomicInteger();
+    private final AtomicInteger runningWorkers = new AtomicInteger();
+    //the best cut found so far, guarded by this
+    private Cut best;
+
+    /**
+     * Create a new search, which does not start until start() is called
+     * @param graph the graph in which to find the mincut
+     * @param numberOfIteration the maximum number of trials
+     * @param seed the seed of the run
+     * @param subscriber called with each new best cut, can be null
+     */
+    AnytimeMinCut(IndexedGraph graph, int numberOfIteration, long seed, Consumer<Cut> subscriber)
+    {
+        this.graph = graph;
+        this.numberOfIteration = numberOfIteration;
+        this.seed = seed;
+        this.parallelContraction = graph.getNumEdges() >= Karger.PARALLEL_CONTRACTION_THRESHOLD;
+        this.subscriber = subscriber;
+    }
+
+    /**
+     * Start the workers on the common fork/join pool
+     * @param timeout the time after which the best cut found so far is returned
+     * @return the future completed with the best cut found, or with a TimeoutException if no trial ended before the deadline
+     */
+    CompletableFuture<Cut> start(Duration timeout)
+    {
+        return start(timeout, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Start the workers on the given executor
+     * @param timeout the time after which the best cut found so far is returned
+     * @param executor the executor running the workers
+     * @param numWorkers the maximum number of trials running at the same time
+     * @return the future completed with the best cut found, or with a TimeoutException if no trial ended before the deadline
+     */
+    CompletableFuture<Cut> start(Duration timeout, Executor executor, int numWorkers)
+    {
+        int workers = Math.max(1, Math.min(numWorkers, numberOfIteration));
+        runningWorkers.set(workers);
+        for (int i = 0; i < workers; i++)
+            executor.execute(this::work);
+
+        ScheduledFuture<?> deadline = DEADLINES.schedule(this::finish, toNanos(timeout), TimeUnit.NANOSECONDS);
+        future.whenComplete((cut, e) -> deadline.cancel(false));
+        return future;
+    }
+
+    /**
+     * Convert the given duration in nanoseconds, a duration too long for a long being clamped to Long.MAX_VALUE
+     * @param timeout the duration, not negative
+     * @return the number of nanoseconds
+     */
+    static long toNanos(Duration timeout)
+    {
+        try
+        {
+            return timeout.toNanos();
+        }
+        catch (ArithmeticException e)
+        {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Create the executor running the deadlines, on a single daemon thread so it never keeps the JVM alive
+     * @return the executor
+     */
+    private static ScheduledThreadPoolExecutor createDeadlines()
+    {
+        ScheduledThreadPoolExecutor res = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "anytime-mincut-deadlines");
+            thread.setDaemon(true);
+            return thread;
+        });
+        res.setRemoveOnCancelPolicy(true);
+        return res;
+    }
+
+    /**
+     * Give the cut to the subscriber, logging its failures instead of letting them reach the caller
+     * @param subscriber the subscriber, can be null
+     * @param cut the cut to publish
+     */
+    static void publish(Consumer<Cut> subscriber, Cut cut)
+    {
+        if (subscriber == null)
+            return;
+
+        try
+        {
+            subscriber.accept(cut);
+        }
+        catch (RuntimeException e)
+        {
+            Logger.getGlobal().severe("The subscriber failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Getter for the number of deadlines waiting, the ones of the completed searches being removed
+     * @return the number of deadlines waiting
+     */
+    static int getPendingDeadlines()
+    {
+        return DEADLINES.getQueue().size();
+    }
+
+    /**
+     * Loop of a worker: take the next trial until there is none left or the future is completed.
+     * The last worker to stop completes the future.
+     */
+    private void work()
+    {
+        try
+        {
+            while (!future.isDone())
+            {
+                int trial = nextTrial.getAndIncrement();
+                if (trial >= numberOfIteration)
+                    break;
+
+                Contraction.Result result = Contraction.trial(graph, 2, Contraction.trialSeed(seed, trial), parallelContraction, future::isDone);
+                if (result != null)
+                    offer(result);
+            }
+        }
+        catch (RuntimeException e)
+        {
+            future.completeExceptionally(e);
+        }
+        finally
+        {
+            if (runningWorkers.decrementAndGet() == 0)
+                finish();
+        }
+    }
+
+    /**
+     * Keep the given result if it is better than the best one so far, and publish it.
+     * The subscriber is called while holding the lock, so it receives strictly decreasing values.
+     * @param result the result of a trial
+     */
+    private synchronized void offer(Contraction.Result result)
+    {
+        if (best != null && result.getValue() >= best.getValue())
+            return;
+
+        best = Cut.fromLabels(graph, result.getLabels(), result.getValue());
+        publish(subscriber, best);
+    }
+
+    /**
+     * Complete the future with the best cut found so far, if it is not already completed
+     */
+    private synchronized void finish()
+    {
+        if (best != null)
+            future.complete(best);
+        else
+            future.completeExceptionally(new TimeoutException("No trial ended before the deadline"));
+    }
+}
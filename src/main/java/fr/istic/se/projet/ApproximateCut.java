@@ -0,0 +1,99 @@
+package fr.istic.se.projet;
+
+/**
+ * Class holding the result of Karger.approximateMinCut: an estimate of the mincut of a graph, the partition giving it,
+ * and how far from the real mincut and how reliable the estimate is.
+ */
+public class ApproximateCut
+{
+    private final Cut cut;
+    private final double estimate;
+    private final double epsilon;
+    private final double confidence;
+    private final double samplingProbability;
+    private final int skeletonEdges;
+
+    /**
+     * Create a new approximate cut
+     * @param cut the partition found on the skeleton, its value being the estimate rounded
+     * @param estimate the estimated value of the mincut
+     * @param epsilon the relative error of the estimate
+     * @param confidence the probability that the estimate is within the relative error
+     * @param samplingProbability the probability with which each edge was kept in the skeleton
+     * @param skeletonEdges the number of edges of the skeleton
+     */
+    ApproximateCut(Cut cut, double estimate, double epsilon, double confidence, double samplingProbability, int skeletonEdges)
+    {
+        this.cut = cut;
+        this.estimate = estimate;
+        this.epsilon = epsilon;
+        this.confidence = confidence;
+        this.samplingProbability = samplingProbability;
+        this.skeletonEdges = skeletonEdges;
+    }
+
+    /**
+     * Getter for the cut attribute
+     * @return the partition found, whose value is the estimate rounded
+     */
+    public Cut getCut()
+    {
+        return cut;
+    }
+
+    /**
+     * Getter for the estimate attribute
+     * @return the estimated value of the mincut
+     */
+    public double getEstimate()
+    {
+        return estimate;
+    }
+
+    /**
+     * Getter for the epsilon attribute.
+     * With a probability of getConfidence(), the mincut is between estimate / (1 + epsilon) and estimate / (1 - epsilon).
+     * It is 0 when the skeleton is the whole graph.
+     * @return the relative error of the estimate
+     */
+    public double getEpsilon()
+    {
+        return epsilon;
+    }
+
+    /**
+     * Getter for the confidence attribute.
+     * It is the probability that the skeleton preserves the cuts within epsilon,
+     * times the probability that the trials found the mincut of the skeleton.
+     * @return the probability that the estimate is within epsilon of the mincut
+     */
+    public double getConfidence()
+    {
+        return confidence;
+    }
+
+    /**
+     * Getter for the samplingProbability attribute
+     * @return the probability with which each edge was kept in the skeleton
+     */
+    public double getSamplingProbability()
+    {
+        return samplingProbability;
+    }
+
+    /**
+     * Getter for the skeletonEdges attribute
+     * @return the number of edges of the skeleton the trials ran on
+     */
+    public int getSkeletonEdges()
+    {
+        return skeletonEdges;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("ApproximateCut{estimate=%.1f, epsilon=%.3f, confidence=%.3f, p=%.5f, skeletonEdges=%d}",
+                estimate, epsilon, confidence, samplingProbability, skeletonEdges);
+    }
+}
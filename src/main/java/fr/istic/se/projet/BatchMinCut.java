@@ -0,0 +1,392 @@
+package fr.istic.se.projet;
+
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Class finding the mincut of many graphs in a single run.
+ * The graphs are loaded (parsed when they come from files) and contracted as tasks of one shared fork/join pool,
+ * so the loading of the next graphs overlaps the trials of the previous ones and every core is busy, without creating any thread per graph.
+ * The results come out in the order the graphs are finished, and at most maxGraphsInFlight graphs are held in memory at the same time,
+ * including the results which have not been read yet.
+ */
+public class BatchMinCut
+{
+    //number of trials of the same graph run by one task of the pool
+    private static final int TRIALS_PER_TASK = 16;
+    //marker put in the queue once every result is in it
+    private static final Result END = new Result(-1, null, null, null);
+
+    /**
+     * Class holding the result of one graph of the batch: its mincut, or the exception thrown while loading or cutting it
+     */
+    public static class Result
+    {
+        private final int index;
+        private final String source;
+        private final Cut cut;
+        private final Exception error;
+        //true if the result holds a permit of the graphs in flight, released once it is read
+        private final boolean holdsPermit;
+
+        /**
+         * Create a new result of a graph, holding a permit of the graphs in flight
+         * @param index the position of the graph in the batch
+         * @param source the name of the graph (its file, or its position)
+         * @param cut the mincut found, null if there was an error
+         * @param error the exception thrown for this graph, null if there was none
+         */
+        Result(int index, String source, Cut cut, Exception error)
+        {
+            this(index, source, cut, error, true);
+        }
+
+        /**
+         * Create a new result
+         * @param index the position of the graph in the batch
+         * @param source the name of the graph (its file, or its position)
+         * @param cut the mincut found, null if there was an error
+         * @param error the exception thrown for this graph, null if there was none
+         * @param holdsPermit true if the result holds a permit of the graphs in flight, false for the errors of the stream itself
+         */
+        Result(int index, String source, Cut cut, Exception error, boolean holdsPermit)
+        {
+            this.index = index;
+            this.source = source;
+            this.cut = cut;
+            this.error = error;
+            this.holdsPermit = holdsPermit;
+        }
+
+        /**
+         * Getter for the index attribute
+         * @return the position of the graph in the batch, starting at 0
+         */
+        public int getIndex()
+        {
+            return index;
+        }
+
+        /**
+         * Getter for the source attribute
+         * @return the path of the file of the graph, or its position if it was not read from a file
+         */
+        public String getSource()
+        {
+            return source;
+        }
+
+        /**
+         * Getter for the cut attribute
+         * @return the mincut found, null if there was an error
+         */
+        public Cut getCut()
+        {
+            return cut;
+        }
+
+        /**
+         * Getter for the error attribute
+         * @return the exception thrown while loading or cutting the graph, null if there was none
+         */
+        public Exception getError()
+        {
+            return error;
+        }
+
+        /**
+         * Return a string describing the result, the source then the cut or the error
+         * @return the text description of the result
+         */
+        @Override
+        public String toString()
+        {
+            return source + " : " + (error == null ? cut : error.toString());
+        }
+    }
+
+    private final int numberOfIteration;
+    private final int maxGraphsInFlight;
+    private final ForkJoinPool pool;
+
+    /**
+     * Create a batch running on the common fork/join pool
+     * @param numberOfIteration the number of times the algorithm must iterate on each graph
+     * @param maxGraphsInFlight the maximum number of graphs loaded, cut or waiting to be read at the same time
+     * @throws IllegalArgumentException if the number of iterations or of graphs in flight is lower than 1
+     */
+    public BatchMinCut(int numberOfIteration, int maxGraphsInFlight)
+    {
+        this(numberOfIteration, maxGraphsInFlight, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Create a batch running on the given pool
+     * @param numberOfIteration the number of times the algorithm must iterate on each graph
+     * @param maxGraphsInFlight the maximum number of graphs loaded, cut or waiting to be read at the same time
+     * @param pool the pool running the loading and the trials of all the graphs
+     * @throws IllegalArgumentException if the number of iterations or of graphs in flight is lower than 1, or the pool is null
+     */
+    public BatchMinCut(int numberOfIteration, int maxGraphsInFlight, ForkJoinPool pool)
+    {
+        if (numberOfIteration < 1)
+            throw new IllegalArgumentException("There must be at least one iteration");
+
+        if (maxGraphsInFlight < 1)
+            throw new IllegalArgumentException("There must be at least one graph in flight");
+
+        if (pool == null)
+            throw new IllegalArgumentException("The pool must not be null");
+
+        this.numberOfIteration = numberOfIteration;
+        this.maxGraphsInFlight = maxGraphsInFlight;
+        this.pool = pool;
+    }
+
+    /**
+     * Find the mincut of each graph of the stream.
+     * The stream is consumed by a background thread, as fast as the results are read.
+     * @param graphs the graphs to cut
+     * @return the results, in the order the graphs are finished
+     * @throws IllegalArgumentException if the stream is null
+     */
+    public Stream<Result> minCuts(Stream<Graph> graphs)
+    {
+        if (graphs == null)
+            throw new IllegalArgumentException("The stream of graphs must not be null");
+
+        AtomicInteger position = new AtomicInteger();
+        return run(graphs.map(graph -> new Source(Integer.toString(position.getAndIncrement()), () -> graph)));
+    }
+
+    /**
+     * Find the mincut of the graph of each file of the stream, see Graph.read(Path) for the format of the files.
+     * The files are read by the tasks of the pool, while the previous graphs are being cut.
+     * @param files the paths of the files to read
+     * @return the results, in the order the graphs are finished
+     * @throws IllegalArgumentException if the stream is null
+     */
+    public Stream<Result> minCutFiles(Stream<Path> files)
+    {
+        if (files == null)
+            throw new IllegalArgumentException("The stream of files must not be null");
+
+        return run(files.map(path -> new Source(path.toString(), () -> Graph.read(path))));
+    }
+
+    /**
+     * Class associating the name of a graph and the way to load it
+     */
+    private static class Source
+    {
+        private final String name;
+        private final Callable<Graph> loader;
+
+        /**
+         * Create a new source
+         * @param name the name of the graph
+         * @param loader the function loading the graph
+         */
+        Source(String name, Callable<Graph> loader)
+        {
+            this.name = name;
+            this.loader = loader;
+        }
+    }
+
+    /**
+     * Start the background thread submitting the graphs to the pool, and return the stream reading their results
+     * @param sources the graphs to cut
+     * @return the results, in the order the graphs are finished
+     */
+    private Stream<Result> run(Stream<Source> sources)
+    {
+        BlockingQueue<Result> results = new LinkedBlockingQueue<>();
+        Semaphore inFlight = new Semaphore(maxGraphsInFlight);
+        //one token per graph being processed, plus one for the submitting thread until the sources are exhausted
+        AtomicInteger pending = new AtomicInteger(1);
+
+        Thread submitter = new Thread(() -> {
+            int index = 0;
+            try
+            {
+                Iterator<Source> it = sources.iterator();
+                while (it.hasNext())
+                {
+                    Source source = it.next();
+                    inFlight.acquire();
+                    pending.incrementAndGet();
+                    try
+                    {
+                        submit(index, source, results, pending);
+                    }
+                    catch (RuntimeException e)
+                    {
+                        //the graph was not submitted, so it will never put its result nor give back its token and its permit
+                        pending.decrementAndGet();
+                        inFlight.release();
+                        throw e;
+                    }
+                    index++;
+                }
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch (RuntimeException e)
+            {
+                results.add(new Result(index, "stream of sources", null, e, false));
+            }
+            finally
+            {
+                sources.close();
+                if (pending.decrementAndGet() == 0)
+                    results.add(END);
+            }
+        }, "batch-mincut-submitter");
+        submitter.setDaemon(true);
+        submitter.start();
+
+        Iterator<Result> iterator = new Iterator<>()
+        {
+            private Result next;
+
+            @Override
+            public boolean hasNext()
+            {
+                if (next == null)
+                {
+                    try
+                    {
+                        next = results.take();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Interrupted while waiting for the next result", e);
+                    }
+                }
+                return next != END;
+            }
+
+            @Override
+            public Result next()
+            {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                Result res = next;
+                next = null;
+                if (res.holdsPermit)
+                    inFlight.release();
+                return res;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false)
+                .onClose(submitter::interrupt);
+    }
+
+    /**
+     * Submit the loading of the graph to the pool, then its trials split in tasks of TRIALS_PER_TASK trials.
+     * The result is put in the queue when all the trials are done.
+     * @param index the position of the graph in the batch
+     * @param source the graph to cut
+     * @param results the queue of the results
+     * @param pending the number of graphs being processed, the last one to finish puts the end marker in the queue
+     */
+    private void submit(int index, Source source, BlockingQueue<Result> results, AtomicInteger pending)
+    {
+        CompletableFuture.supplyAsync(() -> load(source), pool)
+                .thenCompose(this::cut)
+                .whenComplete((cut, error) -> {
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                    if (cause == null)
+                        results.add(new Result(index, source.name, cut, null));
+                    else
+                        results.add(new Result(index, source.name, null, cause instanceof Exception ? (Exception) cause : new RuntimeException(cause)));
+
+                    if (pending.decrementAndGet() == 0)
+                        results.add(END);
+                });
+    }
+
+    /**
+     * Load the graph of the source and index it
+     * @param source the source of the graph
+     * @return the indexed graph
+     * @throws CompletionException wrapping the exception thrown by the loader
+     */
+    private static IndexedGraph load(Source source)
+    {
+        try
+        {
+            Graph graph = source.loader.call();
+            if (graph == null || graph.getNumVertices() < 2)
+                throw new IllegalArgumentException("the graph must contain at least to vertices in order to find the mincut");
+
+            return new IndexedGraph(graph);
+        }
+        catch (Exception e)
+        {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Run the trials of the graph as tasks of the pool and keep the best result
+     * @param graph the graph to cut
+     * @return the future completed with the mincut found
+     */
+    private CompletableFuture<Cut> cut(IndexedGraph graph)
+    {
+        Cut trivialCut = Connectivity.trivialCut(graph);
+        if (trivialCut != null)
+            return CompletableFuture.completedFuture(trivialCut);
+
+        long seed = Contraction.trialSeed(System.nanoTime(), graph.getNumEdges());
+        CompletableFuture<Contraction.Result> best = null;
+        for (int from = 0; from < numberOfIteration; from += TRIALS_PER_TASK)
+        {
+            int start = from;
+            int end = Math.min(numberOfIteration, from + TRIALS_PER_TASK);
+            CompletableFuture<Contraction.Result> task = CompletableFuture.supplyAsync(() -> trials(graph, seed, start, end), pool);
+            best = best == null ? task : best.thenCombine(task, (a, b) -> a.getValue() <= b.getValue() ? a : b);
+        }
+        return best.thenApply(result -> Cut.fromLabels(graph, result.getLabels(), result.getValue()));
+    }
+
+    /**
+     * Run the trials between from and to on the current thread
+     * @param graph the graph to cut
+     * @param seed the seed of the run
+     * @param from the first trial, included
+     * @param to the last trial, excluded
+     * @return the best result of these trials
+     */
+    private static Contraction.Result trials(IndexedGraph graph, long seed, int from, int to)
+    {
+        Contraction.Result best = null;
+        for (int i = from; i < to; i++)
+        {
+            Contraction.Result result = Contraction.trial(graph, 2, Contraction.trialSeed(seed, i), false, () -> false);
+            if (best == null || result.getValue() < best.getValue())
+                best = result;
+        }
+        return best;
+    }
+}
@@ -0,0 +1,301 @@
+package fr.istic.se.projet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * Class running the trials of the Karger's algorithm with checkpoints, so a long run can resume after a restart.
+ * The trials run in batches, and after each batch the state of the run is written to a checkpoint file:
+ * the base seed, the number of trials done, and the best cut found with its partition.
+ * As every trial is driven by Contraction.trialSeed(seed, trial), the base seed and the number of trials done are
+ * the whole state of the random generator. A trial contracts the edges in an order drawn from their indexes, so a resumed run
+ * gives the same result as an uninterrupted one only if the graph is loaded again with the same vertex and edge indexes,
+ * for example from the same graph file. The fingerprint only checks that it is the same graph, whatever its indexing:
+ * on a graph indexed in another way, the resumed trials are as good as the lost ones, but not the same ones.
+ * The file is written next to the checkpoint, forced to the disk then moved over it, so a crash during the write never leaves a broken checkpoint.
+ * The partition of the best cut is written with the labels of the vertices, so it does not depend on the order of their indexes.
+ */
+public class CheckpointedMinCut
+{
+    //"KCKP", at the start of every checkpoint file
+    private static final int MAGIC = 0x4B434B50;
+    private static final int VERSION = 2;
+
+    /**
+     * Hide the constructor
+     */
+    private CheckpointedMinCut()
+    {}
+
+    /**
+     * State of a run, as written in a checkpoint file
+     */
+    static class Checkpoint
+    {
+        private final long fingerprint;
+        private final long seed;
+        private final int numberOfIteration;
+        private final int trialsPerCheckpoint;
+        private int completed;
+        private Contraction.Result best;
+
+        /**
+         * Create a new state
+         * @param fingerprint the fingerprint of the graph, see fingerprint(EdgeList)
+         * @param seed the base seed of the trials
+         * @param numberOfIteration the total number of trials
+         * @param trialsPerCheckpoint the number of trials between two checkpoints
+         * @param completed the number of trials done
+         * @param best the best result of the trials done, null if none is done
+         */
+        Checkpoint(long fingerprint, long seed, int numberOfIteration, int trialsPerCheckpoint, int completed, Contraction.Result best)
+        {
+            this.fingerprint = fingerprint;
+            this.seed = seed;
+            this.numberOfIteration = numberOfIteration;
+            this.trialsPerCheckpoint = trialsPerCheckpoint;
+            this.completed = completed;
+            this.best = best;
+        }
+
+        /**
+         * Getter for the completed attribute
+         * @return the number of trials done
+         */
+        int getCompleted()
+        {
+            return completed;
+        }
+
+        /**
+         * Getter for the best attribute
+         * @return the best result of the trials done, null if none is done
+         */
+        Contraction.Result getBest()
+        {
+            return best;
+        }
+
+        /**
+         * Write the state to the given file, through a temporary file forced to the disk then moved over it
+         * @param file the checkpoint file
+         * @param graph the graph of the run, giving the labels of the vertices of the best partition
+         * @throws IOException if the file can not be written
+         */
+        void write(Path file, EdgeList graph) throws IOException
+        {
+            Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE))
+            {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(fingerprint);
+                out.writeLong(seed);
+                out.writeInt(numberOfIteration);
+                out.writeInt(trialsPerCheckpoint);
+                out.writeInt(completed);
+                out.writeInt(best == null ? -1 : best.getValue());
+                if (best != null)
+                {
+                    out.writeInt(best.getLabels().length);
+                    for (int i = 0; i < best.getLabels().length; i++)
+                    {
+                        out.writeUTF(graph.getVertex(i).getLabel());
+                        out.writeInt(best.getLabels()[i]);
+                    }
+                }
+                out.flush();
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+
+        /**
+         * Read the state written in the given file
+         * @param file the checkpoint file
+         * @param graph the graph of the run, the best partition is given with the indexes of its vertices
+         * @return the state
+         * @throws IOException if the file can not be read, is not a checkpoint file, or its partition is not on the vertices of the graph
+         */
+        static Checkpoint read(Path file, EdgeList graph) throws IOException
+        {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file))))
+            {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION)
+                    throw new IOException(String.format("The file %s is not a checkpoint file", file));
+
+                long fingerprint = in.readLong();
+                long seed = in.readLong();
+                int numberOfIteration = in.readInt();
+                int trialsPerCheckpoint = in.readInt();
+                int completed = in.readInt();
+                int value = in.readInt();
+                Contraction.Result best = null;
+                if (value >= 0)
+                {
+                    int numVertices = in.readInt();
+                    if (numVertices != graph.getNumVertices())
+                        throw new IOException(String.format("The checkpoint %s was written for another graph", file));
+
+                    Map<String, Integer> indexes = new HashMap<>();
+                    for (int i = 0; i < numVertices; i++)
+                        indexes.put(graph.getVertex(i).getLabel(), i);
+                    int[] labels = new int[numVertices];
+                    for (int i = 0; i < numVertices; i++)
+                    {
+                        Integer index = indexes.get(in.readUTF());
+                        if (index == null)
+                            throw new IOException(String.format("The checkpoint %s was written for another graph", file));
+                        labels[index] = in.readInt();
+                    }
+                    best = new Contraction.Result(value, labels);
+                }
+                return new Checkpoint(fingerprint, seed, numberOfIteration, trialsPerCheckpoint, completed, best);
+            }
+        }
+    }
+
+    /**
+     * Start a new run on the given graph, writing a checkpoint to the given file after every batch of trials.
+     * If the file already exists, it is overwritten. The file is kept at the end of the run.
+     * If the graph is disconnected, the cut of value 0 is returned without running any trial nor writing the file.
+     * @param graph the graph in which to find the mincut
+     * @param numberOfIteration the number of times the algorithm must iterate
+     * @param checkpoint the checkpoint file
+     * @param trialsPerCheckpoint the number of trials between two checkpoints, which is at most what a restart loses
+     * @throws IllegalArgumentException if the graph or the file is null, the graph does not contain at least two vertices, or a number is lower than 1
+     * @throws IOException if the checkpoint can not be written
+     * @return the smallest cut found
+     */
+    public static Cut minCutPartition(EdgeList graph, int numberOfIteration, Path checkpoint, int trialsPerCheckpoint) throws IOException
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        if (graph.getNumVertices() < 2)
+            throw new IllegalArgumentException("the graph must contain at least to vertices in order to find the mincut");
+
+        if (numberOfIteration < 1)
+            throw new IllegalArgumentException("There must be at least one iteration");
+
+        if (checkpoint == null)
+            throw new IllegalArgumentException("The path must not be null");
+
+        if (trialsPerCheckpoint < 1)
+            throw new IllegalArgumentException("There must be at least one trial between two checkpoints");
+
+        int[] components = Connectivity.components(graph);
+        if (Arrays.stream(components).anyMatch(label -> label != components[0]))
+            return Cut.fromLabels(graph, components, 0);
+
+        Checkpoint state = new Checkpoint(fingerprint(graph), ThreadLocalRandom.current().nextLong(), numberOfIteration, trialsPerCheckpoint, 0, null);
+        return run(graph, state, checkpoint);
+    }
+
+    /**
+     * Resume the run whose checkpoint is in the given file, on the same graph.
+     * The trials already done are not run again, and the checkpoint keeps being written after every batch.
+     * If the run was already over, its result is returned right away.
+     * @param graph the graph of the run
+     * @param checkpoint the checkpoint file
+     * @throws IllegalArgumentException if the graph or the file is null
+     * @throws IOException if the checkpoint can not be read or written, or was not written for this graph
+     * @return the smallest cut found
+     */
+    public static Cut resume(EdgeList graph, Path checkpoint) throws IOException
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        if (checkpoint == null)
+            throw new IllegalArgumentException("The path must not be null");
+
+        Checkpoint state = Checkpoint.read(checkpoint, graph);
+        if (state.fingerprint != fingerprint(graph))
+            throw new IOException(String.format("The checkpoint %s was written for another graph", checkpoint));
+
+        Logger.getGlobal().info(String.format("Resuming the run of %s after %d trials out of %d", checkpoint, state.completed, state.numberOfIteration));
+        return run(graph, state, checkpoint);
+    }
+
+    /**
+     * Run the trials left, batch by batch, writing the checkpoint after each batch
+     * @param graph the graph in which to find the mincut
+     * @param state the state of the run, updated along the way
+     * @param checkpoint the checkpoint file
+     * @throws IOException if the checkpoint can not be written, or the thread is interrupted
+     * @return the smallest cut found
+     */
+    private static Cut run(EdgeList graph, Checkpoint state, Path checkpoint) throws IOException
+    {
+        boolean parallelContraction = graph.getNumEdges() >= Karger.PARALLEL_CONTRACTION_THRESHOLD;
+        while (state.completed < state.numberOfIteration)
+        {
+            if (Thread.interrupted())
+                throw new InterruptedIOException("Interrupted after " + state.completed + " trials, the run can be resumed");
+
+            int end = Math.min(state.numberOfIteration, state.completed + state.trialsPerCheckpoint);
+            Contraction.Result batchBest = IntStream.range(state.completed, end).parallel()
+                    .mapToObj(i -> Contraction.trial(graph, 2, Contraction.trialSeed(state.seed, i), parallelContraction, () -> false))
+                    .min(Comparator.comparingInt(Contraction.Result::getValue))
+                    .orElseThrow();
+
+            if (state.best == null || batchBest.getValue() < state.best.getValue())
+                state.best = batchBest;
+            state.completed = end;
+            state.write(checkpoint, graph);
+        }
+        return Cut.fromLabels(graph, state.best.getLabels(), state.best.getValue());
+    }
+
+    /**
+     * Compute a fingerprint of the edges of the graph, to check that a checkpoint is resumed on the graph it was written for.
+     * Each edge is hashed from the labels of its ends, the lowest hash first, and the hashes are summed,
+     * so the fingerprint depends neither on the indexes of the vertices nor on the order and direction of the edges.
+ * A checkpoint can then be resumed on the same graph loaded in another order, see the class description for what it changes.
+     * @param graph the graph
+     * @return the fingerprint
+     */
+    static long fingerprint(EdgeList graph)
+    {
+        long[] labelHashes = IntStream.range(0, graph.getNumVertices()).mapToLong(i -> hash(graph.getVertex(i).getLabel())).toArray();
+        long[] res = {Contraction.mix(31L * graph.getNumVertices() + graph.getNumEdges())};
+        graph.forEachEdge(0, graph.getNumEdges(), (e, source, target) -> {
+            long low = Math.min(labelHashes[source], labelHashes[target]);
+            long high = Math.max(labelHashes[source], labelHashes[target]);
+            res[0] += Contraction.mix(31 * low + high);
+        });
+        return res[0];
+    }
+
+    /**
+     * Hash a label on 64 bits
+     * @param label the label
+     * @return the hash
+     */
+    private static long hash(String label)
+    {
+        long res = label.length();
+        for (int i = 0; i < label.length(); i++)
+            res = 31 * res + label.charAt(i);
+        return Contraction.mix(res);
+    }
+}
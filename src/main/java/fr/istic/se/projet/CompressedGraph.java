@@ -0,0 +1,333 @@
+package fr.istic.se.projet;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
+/**
+ * Read only graph storing its adjacency lists compressed, for the sparse graphs whose neighbours have close indexes.
+ * Each edge is stored once, in the list of its lowest endpoint. The lists are sorted, and each neighbour is stored
+ * as the gap from the previous one (from the vertex itself for the first one) written as a varint:
+ * 7 bits per byte, the highest bit telling if another byte follows. Close neighbours then take a single byte instead of 4.
+ * The lists are decoded on the fly by forEachEdge, which is what the trials use to go through the edges,
+ * see Karger.minCutPartition(EdgeList, int), and by getEdges, which the trials use to read a batch of edges in a random order.
+ * getSource and getTarget need to decode the start of a list, so they are much slower than reading the edges in order.
+ */
+public class CompressedGraph implements EdgeList
+{
+    private final Graph.Vertex[] vertices;
+    //the edges stored in the list of v are the edges firstEdges[v] to firstEdges[v+1] excluded
+    private final int[] firstEdges;
+    //the list of v starts at the byte offsets[v] of data
+    private final int[] offsets;
+    private final byte[] data;
+
+    /**
+     * Compress the given graph.
+     * The vertices keep their indexes, the edges are renumbered in the order of the lists.
+     * @param graph the graph to compress
+     * @throws IllegalArgumentException if the graph is null
+     */
+    public CompressedGraph(EdgeList graph)
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        int n = graph.getNumVertices();
+        int m = graph.getNumEdges();
+        vertices = new Graph.Vertex[n];
+        for (int v = 0; v < n; v++)
+            vertices[v] = graph.getVertex(v);
+
+        //counting sort of the edges by their lowest endpoint
+        firstEdges = new int[n + 1];
+        graph.forEachEdge(0, m, (e, source, target) -> firstEdges[Math.min(source, target) + 1]++);
+        for (int v = 0; v < n; v++)
+            firstEdges[v + 1] += firstEdges[v];
+
+        int[] neighbours = new int[m];
+        int[] fill = Arrays.copyOf(firstEdges, n);
+        graph.forEachEdge(0, m, (e, source, target) -> neighbours[fill[Math.min(source, target)]++] = Math.max(source, target));
+
+        offsets = new int[n + 1];
+        ByteArrayOutputStream out = new ByteArrayOutputStream(m + 16);
+        for (int v = 0; v < n; v++)
+        {
+            offsets[v] = out.size();
+            Arrays.sort(neighbours, firstEdges[v], firstEdges[v + 1]);
+            int previous = v;
+            for (int i = firstEdges[v]; i < firstEdges[v + 1]; i++)
+            {
+                writeVarint(out, neighbours[i] - previous);
+                previous = neighbours[i];
+            }
+        }
+        offsets[n] = out.size();
+        data = out.toByteArray();
+    }
+
+    /**
+     * Compress the given graph, see CompressedGraph(EdgeList).
+     * The vertices are first renumbered by bfsOrder, as the indexes of an IndexedGraph built from a Graph
+     * follow the order of its HashMap, which scatters the neighbours and makes the gaps as big as the number of vertices.
+     * @param graph the graph to compress
+     * @throws IllegalArgumentException if the graph is null
+     */
+    public CompressedGraph(Graph graph)
+    {
+        this(bfsOrder(new IndexedGraph(graph)));
+    }
+
+    /**
+     * Renumber the vertices of the graph in the order of a breadth first search, started again from the lowest vertex
+     * not reached yet for each component. The neighbours of a vertex are then numbered close to each other and to it.
+     * @param graph the graph to renumber
+     * @return the same graph with its vertices renumbered, the edges keeping their indexes
+     */
+    static IndexedGraph bfsOrder(IndexedGraph graph)
+    {
+        int n = graph.getNumVertices();
+        int m = graph.getNumEdges();
+        int[] sources = graph.getSources();
+        int[] targets = graph.getTargets();
+
+        //adjacency arrays: the neighbours of v are between offsets[v] and offsets[v+1]
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < m; e++)
+        {
+            offsets[sources[e] + 1]++;
+            offsets[targets[e] + 1]++;
+        }
+        for (int v = 0; v < n; v++)
+            offsets[v + 1] += offsets[v];
+        int[] fill = Arrays.copyOf(offsets, n);
+        int[] neighbours = new int[2 * m];
+        for (int e = 0; e < m; e++)
+        {
+            neighbours[fill[sources[e]]++] = targets[e];
+            neighbours[fill[targets[e]]++] = sources[e];
+        }
+
+        //the queue of the search is the list of the old indexes in the new order
+        int[] newIndexes = new int[n];
+        Arrays.fill(newIndexes, -1);
+        int[] queue = new int[n];
+        int size = 0;
+        for (int root = 0; root < n; root++)
+        {
+            if (newIndexes[root] != -1)
+                continue;
+
+            newIndexes[root] = size;
+            queue[size++] = root;
+            for (int head = size - 1; head < size; head++)
+            {
+                int u = queue[head];
+                for (int i = offsets[u]; i < offsets[u + 1]; i++)
+                {
+                    if (newIndexes[neighbours[i]] == -1)
+                    {
+                        newIndexes[neighbours[i]] = size;
+                        queue[size++] = neighbours[i];
+                    }
+                }
+            }
+        }
+
+        Graph.Vertex[] vertices = new Graph.Vertex[n];
+        for (int v = 0; v < n; v++)
+            vertices[v] = graph.getVertex(queue[v]);
+        int[] newSources = new int[m];
+        int[] newTargets = new int[m];
+        for (int e = 0; e < m; e++)
+        {
+            newSources[e] = newIndexes[sources[e]];
+            newTargets[e] = newIndexes[targets[e]];
+        }
+        return new IndexedGraph(vertices, newSources, newTargets);
+    }
+
+    @Override
+    public int getNumVertices()
+    {
+        return vertices.length;
+    }
+
+    @Override
+    public int getNumEdges()
+    {
+        return firstEdges[vertices.length];
+    }
+
+    @Override
+    public Graph.Vertex getVertex(int index)
+    {
+        return vertices[index];
+    }
+
+    /**
+     * Return the index of the first endpoint of the given edge, which is its lowest one.
+     * It is found by a dichotomy on the lists.
+     * @param edge the index of the edge
+     * @return the index of its first vertex
+     */
+    @Override
+    public int getSource(int edge)
+    {
+        if (edge < 0 || edge >= getNumEdges())
+            throw new IndexOutOfBoundsException(String.format("The edge %d is not part of the graph", edge));
+
+        //last vertex whose list starts at or before the edge
+        int low = 0;
+        int high = vertices.length - 1;
+        while (low < high)
+        {
+            int middle = (low + high + 1) >>> 1;
+            if (firstEdges[middle] <= edge)
+                low = middle;
+            else
+                high = middle - 1;
+        }
+        return low;
+    }
+
+    /**
+     * Return the index of the second endpoint of the given edge, which is its highest one.
+     * The list of the edge is decoded up to it.
+     * @param edge the index of the edge
+     * @return the index of its second vertex
+     */
+    @Override
+    public int getTarget(int edge)
+    {
+        int[] res = new int[1];
+        forEachEdge(edge, edge + 1, (e, source, target) -> res[0] = target);
+        return res[0];
+    }
+
+    /**
+     * Decode the lists holding the edges from the index from to the index to, and give these edges to the consumer
+     * @param from the first edge, included
+     * @param to the last edge, excluded
+     * @param consumer the function receiving the edges
+     */
+    @Override
+    public void forEachEdge(int from, int to, EdgeConsumer consumer)
+    {
+        if (from >= to)
+            return;
+
+        int v = getSource(from);
+        int position = offsets[v];
+        int neighbour = v;
+        int listEnd = firstEdges[v + 1];
+        for (int e = firstEdges[v]; e < to; e++)
+        {
+            while (e == listEnd)
+            {
+                v++;
+                position = offsets[v];
+                neighbour = v;
+                listEnd = firstEdges[v + 1];
+            }
+
+            //varint decoding of the gap
+            int gap = 0;
+            int shift = 0;
+            byte b;
+            do
+            {
+                b = data[position++];
+                gap |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            neighbour += gap;
+
+            if (e >= from)
+                consumer.accept(e, v, neighbour);
+        }
+    }
+
+    /**
+     * Read the endpoints of a batch of edges given in any order, see EdgeList.getEdges.
+     * The batch is sorted by index, then decoded by a cursor which goes on along the current list,
+     * and only searches the start of a list when the next edge is in another one.
+     * @param edges the indexes of the edges
+     * @param from the first position of the batch in edges, included
+     * @param to the last position of the batch in edges, excluded
+     * @param sources the array receiving the first endpoints, from its index 0
+     * @param targets the array receiving the second endpoints, from its index 0
+     */
+    @Override
+    public void getEdges(int[] edges, int from, int to, int[] sources, int[] targets)
+    {
+        //each edge is sorted with its position in the batch in the low bits
+        long[] sorted = new long[Math.max(0, to - from)];
+        for (int i = from; i < to; i++)
+        {
+            if (edges[i] < 0 || edges[i] >= getNumEdges())
+                throw new IndexOutOfBoundsException(String.format("The edge %d is not part of the graph", edges[i]));
+            sorted[i - from] = (long) edges[i] << 32 | (i - from);
+        }
+        Arrays.sort(sorted);
+
+        //the cursor: the next edge to decode is e, in the list of v, at the byte position of data, after the neighbour
+        int v = -1;
+        int e = 0;
+        int position = 0;
+        int neighbour = 0;
+        for (long key : sorted)
+        {
+            int edge = (int) (key >>> 32);
+            if (v == -1 || edge >= firstEdges[v + 1])
+            {
+                v = getSource(edge);
+                e = firstEdges[v];
+                position = offsets[v];
+                neighbour = v;
+            }
+
+            //the same edge can be twice in the batch, it is then already decoded
+            for (; e <= edge; e++)
+            {
+                int gap = 0;
+                int shift = 0;
+                byte b;
+                do
+                {
+                    b = data[position++];
+                    gap |= (b & 0x7F) << shift;
+                    shift += 7;
+                } while (b < 0);
+                neighbour += gap;
+            }
+
+            sources[(int) key] = v;
+            targets[(int) key] = neighbour;
+        }
+    }
+
+    /**
+     * Return the size of the compressed lists, without the arrays of one int per vertex
+     * @return the number of bytes used by the lists
+     */
+    public int getDataSize()
+    {
+        return data.length;
+    }
+
+    /**
+     * Write a positive value as a varint, 7 bits per byte from the lowest ones, the highest bit set on every byte but the last one
+     * @param out the stream to write to
+     * @param value the value to write
+     */
+    private static void writeVarint(ByteArrayOutputStream out, int value)
+    {
+        int v = value;
+        while ((v & ~0x7F) != 0)
+        {
+            out.write((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.write(v);
+    }
+}
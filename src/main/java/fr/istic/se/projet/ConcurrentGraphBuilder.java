@@ -0,0 +1,208 @@
+package fr.istic.se.projet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Class building a graph from edges added by several threads at the same time.
+ * The adjacency lists are split in shards by the hash of their vertex, each shard having its own lock,
+ * and every thread first stores its edges in its own buffer, which is emptied in the shards once full.
+ * This way the producers almost never wait for each other. Once all the edges are added, freeze() returns the graph.
+ */
+public class ConcurrentGraphBuilder
+{
+    //number of half edges a thread keeps before pushing them to the shards
+    private static final int BUFFER_SIZE = 1024;
+
+    /**
+     * Part of the adjacency map, holding the vertices whose hash falls in it
+     */
+    private static class Shard
+    {
+        private final HashMap<Graph.Vertex, List<Graph.Vertex>> adjMap = new HashMap<>();
+    }
+
+    /**
+     * Buffer of the half edges added by one thread and not yet pushed to the shards.
+     * The half edge i goes from sources[i] to targets[i].
+     */
+    private class Buffer
+    {
+        private final Graph.Vertex[] sources = new Graph.Vertex[BUFFER_SIZE];
+        private final Graph.Vertex[] targets = new Graph.Vertex[BUFFER_SIZE];
+        //work arrays of the counting sort made by flush()
+        private final int[] shardOf = new int[BUFFER_SIZE];
+        private final int[] order = new int[BUFFER_SIZE];
+        private final int[] starts = new int[shards.length + 1];
+        private int size = 0;
+
+        /**
+         * Add a half edge, and push the buffer to the shards if it is full
+         * @param source the vertex whose list receives the edge
+         * @param target the other vertex
+         */
+        synchronized void add(Graph.Vertex source, Graph.Vertex target)
+        {
+            sources[size] = source;
+            targets[size] = target;
+            size++;
+            if (size == BUFFER_SIZE)
+                flush();
+        }
+
+        /**
+         * Push the half edges of the buffer to their shards.
+         * They are first grouped by shard with a counting sort, so each shard is locked only once.
+         */
+        synchronized void flush()
+        {
+            Arrays.fill(starts, 0);
+            for (int i = 0; i < size; i++)
+            {
+                shardOf[i] = shardIndex(sources[i]);
+                starts[shardOf[i] + 1]++;
+            }
+            for (int s = 0; s < shards.length; s++)
+                starts[s + 1] += starts[s];
+
+            int[] fill = Arrays.copyOf(starts, shards.length);
+            for (int i = 0; i < size; i++)
+                order[fill[shardOf[i]]++] = i;
+
+            for (int s = 0; s < shards.length; s++)
+            {
+                if (starts[s] == starts[s + 1])
+                    continue;
+
+                Shard shard = shards[s];
+                synchronized (shard)
+                {
+                    for (int k = starts[s]; k < starts[s + 1]; k++)
+                        shard.adjMap.computeIfAbsent(sources[order[k]], v -> new ArrayList<>()).add(targets[order[k]]);
+                }
+            }
+
+            Arrays.fill(sources, 0, size, null);
+            Arrays.fill(targets, 0, size, null);
+            size = 0;
+        }
+    }
+
+    private final Shard[] shards;
+    private final Queue<Buffer> buffers = new ConcurrentLinkedQueue<>();
+    private final ThreadLocal<Buffer> localBuffer = ThreadLocal.withInitial(() -> {
+        Buffer buffer = new Buffer();
+        buffers.add(buffer);
+        return buffer;
+    });
+    private volatile boolean frozen = false;
+
+    /**
+     * Create a builder with a number of shards adapted to the number of processors
+     */
+    public ConcurrentGraphBuilder()
+    {
+        this(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create a builder with the given number of shards, rounded up to a power of two
+     * @param numShards the number of shards, the more producers there are the more shards are needed
+     * @throws IllegalArgumentException if the number of shards is lower than 1
+     */
+    public ConcurrentGraphBuilder(int numShards)
+    {
+        if (numShards < 1)
+            throw new IllegalArgumentException("There must be at least one shard");
+
+        int size = Integer.highestOneBit(numShards);
+        if (size < numShards)
+            size <<= 1;
+
+        shards = new Shard[size];
+        for (int i = 0; i < size; i++)
+            shards[i] = new Shard();
+    }
+
+    /**
+     * Add an edge between the 2 given Vertices, see Graph.addEdge(String, String).
+     * This method can be called by several threads at the same time.
+     * @param v1 The label of the first vertex
+     * @param v2 The label of the second vertex
+     * @throws IllegalArgumentException if a label is null or blank
+     * @throws IllegalStateException if the builder is already frozen
+     */
+    public void addEdge(String v1, String v2)
+    {
+        if (v1 == null || v2 == null)
+            throw new IllegalArgumentException("the labels must not be null");
+
+        if (v1.isBlank() || v2.isBlank())
+            throw new IllegalArgumentException("the labels must not be blank");
+
+        addEdge(new Graph.Vertex(v1), new Graph.Vertex(v2));
+    }
+
+    /**
+     * Add an edge between the 2 given Vertices, see Graph.addEdge(Vertex, Vertex).
+     * This method can be called by several threads at the same time.
+     * @param vertex1 The first vertex
+     * @param vertex2 The second vertex
+     * @throws IllegalArgumentException if at least one of the vertices is null
+     * @throws IllegalStateException if the builder is already frozen
+     */
+    public void addEdge(Graph.Vertex vertex1, Graph.Vertex vertex2)
+    {
+        if (vertex1 == null || vertex2 == null)
+            throw new IllegalArgumentException("The vertices must not be null");
+
+        if (frozen)
+            throw new IllegalStateException("The graph is already frozen");
+
+        //both ways because non-directed graph
+        Buffer buffer = localBuffer.get();
+        buffer.add(vertex1, vertex2);
+        buffer.add(vertex2, vertex1);
+    }
+
+    /**
+     * Push the edges left in the buffers of all the threads, and return the graph made of all the added edges.
+     * It must be called once every producer is done, no edge can be added afterwards.
+     * @return the graph
+     * @throws IllegalStateException if the builder is already frozen
+     */
+    public synchronized Graph freeze()
+    {
+        if (frozen)
+            throw new IllegalStateException("The graph is already frozen");
+
+        frozen = true;
+        for (Buffer buffer : buffers)
+            buffer.flush();
+
+        HashMap<Graph.Vertex, List<Graph.Vertex>> adjMap = new HashMap<>();
+        for (Shard shard : shards)
+        {
+            synchronized (shard)
+            {
+                adjMap.putAll(shard.adjMap);
+            }
+        }
+        return new Graph(adjMap);
+    }
+
+    /**
+     * Return the index of the shard holding the list of the given vertex
+     * @param vertex the vertex
+     * @return the index of its shard
+     */
+    private int shardIndex(Graph.Vertex vertex)
+    {
+        int h = vertex.hashCode();
+        return (h ^ (h >>> 16)) & (shards.length - 1);
+    }
+}
@@ -0,0 +1,106 @@
+package fr.istic.se.projet;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Union-find structure on the integers 0 to size - 1 which can be used by several threads at the same time.
+ * A root is always linked under a root with a lower index, so the parent of an element is never greater than the element
+ * and the links can not form a cycle whatever the order of the concurrent unions.
+ */
+class ConcurrentUnionFind
+{
+    private final AtomicIntegerArray parent;
+    private final AtomicInteger numSets;
+
+    /**
+     * Create a union-find where every element is alone in its set
+     * @param size the number of elements
+     */
+    ConcurrentUnionFind(int size)
+    {
+        parent = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++)
+            parent.set(i, i);
+        numSets = new AtomicInteger(size);
+    }
+
+    /**
+     * copy constructor
+     * Must not be called while other threads modify the copied structure.
+     * @param other the union-find to copy
+     */
+    ConcurrentUnionFind(ConcurrentUnionFind other)
+    {
+        parent = new AtomicIntegerArray(other.parent.length());
+        for (int i = 0; i < parent.length(); i++)
+            parent.set(i, other.parent.get(i));
+        numSets = new AtomicInteger(other.numSets.get());
+    }
+
+    /**
+     * Return the root of the set containing the given element.
+     * The path is halved on the way up.
+     * @param element the element to look for
+     * @return the root of its set
+     */
+    int find(int element)
+    {
+        int x = element;
+        int p = parent.get(x);
+        while (p != x)
+        {
+            int grandParent = parent.get(p);
+            if (grandParent != p)
+                parent.compareAndSet(x, p, grandParent);
+            x = grandParent;
+            p = parent.get(x);
+        }
+        return x;
+    }
+
+    /**
+     * Merge the sets of the two given elements
+     * @param a the first element
+     * @param b the second element
+     * @return true if the two sets were merged, false if the elements were already in the same set
+     */
+    boolean union(int a, int b)
+    {
+        while (true)
+        {
+            int rootA = find(a);
+            int rootB = find(b);
+            if (rootA == rootB)
+                return false;
+
+            int high = Math.max(rootA, rootB);
+            int low = Math.min(rootA, rootB);
+            if (parent.compareAndSet(high, high, low))
+            {
+                numSets.decrementAndGet();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Return the number of distinct sets
+     * @return the number of sets
+     */
+    int getNumSets()
+    {
+        return numSets.get();
+    }
+
+    /**
+     * Return the root of each element, computed in parallel.
+     * Two elements are in the same set if and only if they have the same label.
+     * @return an array with the root of each element
+     */
+    int[] labels()
+    {
+        return IntStream.range(0, parent.length()).parallel().map(this::find).toArray();
+    }
+}
@@ -0,0 +1,239 @@
+package fr.istic.se.projet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Class providing linear time checks on the connectivity of a graph.
+ * They are used before running the Karger's algorithm: if the graph is disconnected the mincut is 0,
+ * and if it has a bridge the mincut is 1, so there is no need to contract anything.
+ */
+public class Connectivity
+{
+    //under this number of edges, the parallel streams cost more than they bring
+    static final int PARALLEL_THRESHOLD = 1 << 14;
+    //number of consecutive edges read by the same task when the edges are read in parallel
+    static final int BLOCK_SIZE = 1 << 16;
+
+    /**
+     * Hide the constructor
+     */
+    private Connectivity()
+    {}
+
+    /**
+     * Find the connected components of the graph.
+     * The edges are merged in parallel in a shared union-find.
+     * @param graph the graph in which to find the components
+     * @return a label for each vertex, two vertices have the same label if and only if they are in the same component
+     * @throws IllegalArgumentException if the graph is null
+     */
+    public static int[] components(EdgeList graph)
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        return unionEdges(graph, -1).labels();
+    }
+
+    /**
+     * Returns true if every vertex of the graph can be reached from every other vertex
+     * @param graph the graph to check
+     * @return true if the graph is connected, false otherwise
+     * @throws IllegalArgumentException if the graph is null
+     */
+    public static boolean isConnected(EdgeList graph)
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        return unionEdges(graph, -1).getNumSets() <= 1;
+    }
+
+    /**
+     * Find the bridges of the graph, ie the edges whose removal disconnects their component.
+     * Two parallel edges between the same vertices are never bridges.
+     * The search is an iterative version of the Tarjan's algorithm, so it does not overflow the stack on big graphs.
+     * The edges are read once in order by forEachEdge to build the adjacency arrays, which hold the neighbours for the search.
+     * @param graph the graph in which to find the bridges
+     * @return the indexes of the edges which are bridges
+     * @throws IllegalArgumentException if the graph is null
+     */
+    public static List<Integer> bridges(EdgeList graph)
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        int n = graph.getNumVertices();
+        int m = graph.getNumEdges();
+
+        //adjacency arrays: the edges of v and their other endpoint are between offsets[v] and offsets[v+1]
+        int[] offsets = new int[n + 1];
+        graph.forEachEdge(0, m, (e, source, target) -> {
+            offsets[source + 1]++;
+            offsets[target + 1]++;
+        });
+        for (int v = 0; v < n; v++)
+            offsets[v + 1] += offsets[v];
+
+        int[] fill = new int[n];
+        int[] adjEdges = new int[2 * m];
+        int[] adjVertices = new int[2 * m];
+        graph.forEachEdge(0, m, (e, source, target) -> {
+            int i = offsets[source] + fill[source]++;
+            adjEdges[i] = e;
+            adjVertices[i] = target;
+            i = offsets[target] + fill[target]++;
+            adjEdges[i] = e;
+            adjVertices[i] = source;
+        });
+
+        int[] discovery = new int[n];
+        int[] low = new int[n];
+        int[] parentEdge = new int[n];
+        int[] position = new int[n];
+        int[] stack = new int[n];
+        Arrays.fill(discovery, -1);
+        List<Integer> res = new ArrayList<>();
+        int time = 0;
+
+        for (int root = 0; root < n; root++)
+        {
+            if (discovery[root] != -1)
+                continue;
+
+            int top = 0;
+            stack[0] = root;
+            discovery[root] = low[root] = time++;
+            parentEdge[root] = -1;
+            position[root] = offsets[root];
+
+            while (top >= 0)
+            {
+                int u = stack[top];
+                if (position[u] < offsets[u + 1])
+                {
+                    int v = adjVertices[position[u]];
+                    int e = adjEdges[position[u]++];
+                    if (e == parentEdge[u])
+                        continue;
+
+                    if (discovery[v] == -1)
+                    {
+                        discovery[v] = low[v] = time++;
+                        parentEdge[v] = e;
+                        position[v] = offsets[v];
+                        stack[++top] = v;
+                    }
+                    else
+                        low[u] = Math.min(low[u], discovery[v]);
+                }
+                else
+                {
+                    top--;
+                    int e = parentEdge[u];
+                    if (e != -1)
+                    {
+                        //the parent of u in the search is just below it in the stack
+                        int p = stack[top];
+                        low[p] = Math.min(low[p], low[u]);
+                        if (low[u] > discovery[p])
+                            res.add(e);
+                    }
+                }
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Find the mincut of the graph without running the Karger's algorithm, when it is obvious.
+     * If the graph is disconnected, the cut of value 0 separating the component of one vertex from the rest of the graph is returned.
+     * If the graph has a bridge, the cut of value 1 made by removing this bridge is returned.
+     * Otherwise, the mincut is at least 2 and null is returned.
+     * @param graph the graph in which to find the mincut
+     * @return the mincut of the graph if it is 0 or 1, null otherwise
+     * @throws IllegalArgumentException if the graph is null
+     */
+    public static Cut trivialCut(Graph graph)
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        return trivialCut(new IndexedGraph(graph));
+    }
+
+    /**
+     * Same as trivialCut(Graph), on a graph which is already indexed
+     * @param graph the graph in which to find the mincut
+     * @return the mincut of the graph if it is 0 or 1, null otherwise
+     * @throws IllegalArgumentException if the graph is null
+     */
+    public static Cut trivialCut(EdgeList graph)
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        if (graph.getNumVertices() < 2)
+            return null;
+
+        ConcurrentUnionFind components = unionEdges(graph, -1);
+        if (components.getNumSets() > 1)
+            return Cut.fromLabels(graph, components.labels(), 0);
+
+        List<Integer> bridges = bridges(graph);
+        if (!bridges.isEmpty())
+            return bridgeCut(graph, bridges.get(0));
+
+        return null;
+    }
+
+    /**
+     * Return the cut of value 1 made by removing the given bridge from a connected graph
+     * @param graph the connected graph
+     * @param bridge the index of a bridge of the graph, see bridges(EdgeList)
+     * @return the cut separating the two endpoints of the bridge
+     */
+    static Cut bridgeCut(EdgeList graph, int bridge)
+    {
+        return Cut.fromLabels(graph, unionEdges(graph, bridge).labels(), 1);
+    }
+
+    /**
+     * Merge the endpoints of every edge of the graph in a new union-find, in parallel if the graph is big enough
+     * @param graph the graph whose edges must be merged
+     * @param skippedEdge the index of an edge to ignore, or -1 to merge them all
+     * @return the resulting union-find
+     */
+    private static ConcurrentUnionFind unionEdges(EdgeList graph, int skippedEdge)
+    {
+        ConcurrentUnionFind unionFind = new ConcurrentUnionFind(graph.getNumVertices());
+        forEachEdge(graph, (e, source, target) -> {
+            if (e != skippedEdge)
+                unionFind.union(source, target);
+        });
+        return unionFind;
+    }
+
+    /**
+     * Give all the edges of the graph to the consumer, by blocks of consecutive edges run in parallel if the graph is big enough.
+     * The consumer must be thread safe, and the edges are not given in order.
+     * @param graph the graph
+     * @param consumer the function receiving the edges
+     */
+    static void forEachEdge(EdgeList graph, EdgeList.EdgeConsumer consumer)
+    {
+        int numEdges = graph.getNumEdges();
+        if (numEdges < PARALLEL_THRESHOLD)
+        {
+            graph.forEachEdge(0, numEdges, consumer);
+            return;
+        }
+
+        int numBlocks = (numEdges + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        IntStream.range(0, numBlocks).parallel()
+                .forEach(block -> graph.forEachEdge(block * BLOCK_SIZE, Math.min(numEdges, (block + 1) * BLOCK_SIZE), consumer));
+    }
+}
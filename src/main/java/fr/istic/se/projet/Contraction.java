@@ -0,0 +1,411 @@
+package fr.istic.se.projet;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.function.BooleanSupplier;
+import java.util.stream.IntStream;
+
+/**
+ * Class implementing one trial of the Karger's algorithm on an indexed graph.
+ * Contracting uniformly chosen edges until k vertices remain is the same as taking the edges in a random order
+ * and merging their endpoints in a union-find until there are k sets left, which is what is done here.
+ * Every trial is driven by a seed, so a trial can be replayed and the trials of a run can be split between threads.
+ */
+public class Contraction
+{
+    //mask keeping the ranks in [0, 2^62), so that the sum of two bounds of the search fits in a long
+    private static final long RANK_MASK = (1L << 62) - 1;
+    //number of edges per vertex of the live window of contractParallel, copied and sorted instead of being searched in the graph
+    private static final int LIVE_EDGES_PER_VERTEX = 2;
+    //number of edges contracted between two checks of the cancellation
+    static final int CANCELLATION_CHECK_INTERVAL = 1 << 12;
+
+    /**
+     * Hide the constructor
+     */
+    private Contraction()
+    {}
+
+    /**
+     * Class holding the result of a trial: the labels of the vertices after the contraction and the number of edges left between them
+     */
+    static class Result
+    {
+        private final int value;
+        private final int[] labels;
+
+        /**
+         * Create a new result
+         * @param value the number of edges crossing the partition
+         * @param labels a label for each vertex
+         */
+        Result(int value, int[] labels)
+        {
+            this.value = value;
+            this.labels = labels;
+        }
+
+        /**
+         * Getter for the value attribute
+         * @return the number of edges crossing the partition
+         */
+        int getValue()
+        {
+            return value;
+        }
+
+        /**
+         * Getter for the labels attribute
+         * @return the label of each vertex
+         */
+        int[] getLabels()
+        {
+            return labels;
+        }
+    }
+
+    /**
+     * Run one trial: contract the graph until numComponents vertices remain, then count the edges left between them
+     * @param graph the graph to contract
+     * @param numComponents the number of vertices to keep
+     * @param seed the seed of the trial
+     * @param parallel if set to true, the trial is contracted with contractParallel, else with contract
+     * @param cancelled checked along the contraction, the trial stops as soon as it returns true
+     * @return the result of the trial, or null if it was cancelled
+     * @throws IllegalArgumentException if the graph is null or numComponents is lower than 1
+     */
+    static Result trial(EdgeList graph, int numComponents, long seed, boolean parallel, BooleanSupplier cancelled)
+    {
+        int[] labels = parallel ? contractParallel(graph, numComponents, seed, cancelled) : contract(graph, numComponents, seed, cancelled);
+        if (labels == null)
+            return null;
+
+        return new Result(CutCounter.count(graph, labels), labels);
+    }
+
+    /**
+     * Return the seed of the given trial of a run
+     * @param seed the seed of the run
+     * @param trial the number of the trial in the run
+     * @return the seed of the trial
+     */
+    public static long trialSeed(long seed, long trial)
+    {
+        return mix(seed + trial * 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Contract the graph until numComponents vertices remain, on the current thread.
+     * The random order of the edges is made by a Fisher-Yates shuffle done along the contraction,
+     * so the trial stops as soon as there are enough merges.
+     * If the graph has more than numComponents connected components, the components are returned.
+     * @param graph the graph to contract
+     * @param numComponents the number of vertices to keep
+     * @param seed the seed of the trial
+     * @return a label for each vertex, the vertices with the same label are merged in the same vertex
+     * @throws IllegalArgumentException if the graph is null or numComponents is lower than 1
+     */
+    public static int[] contract(EdgeList graph, int numComponents, long seed)
+    {
+        return contract(graph, numComponents, seed, () -> false);
+    }
+
+    /**
+     * Same as contract(IndexedGraph, int, long), but the contraction can be stopped before its end
+     * @param graph the graph to contract
+     * @param numComponents the number of vertices to keep
+     * @param seed the seed of the trial
+     * @param cancelled checked every CANCELLATION_CHECK_INTERVAL edges, the contraction stops as soon as it returns true
+     * @return a label for each vertex, or null if the contraction was cancelled
+     * @throws IllegalArgumentException if the graph is null or numComponents is lower than 1
+     */
+    static int[] contract(EdgeList graph, int numComponents, long seed, BooleanSupplier cancelled)
+    {
+        checkArguments(graph, numComponents);
+
+        int n = graph.getNumVertices();
+        int m = graph.getNumEdges();
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++)
+            parent[i] = i;
+
+        int[] order = new int[m];
+        for (int e = 0; e < m; e++)
+            order[e] = e;
+
+        //the steps of the shuffle do not depend on the merges, so the edges are shuffled and read by batches,
+        //which lets a graph only cheap to read in order decode each batch at once
+        int[] sources = new int[Math.min(m, CANCELLATION_CHECK_INTERVAL)];
+        int[] targets = new int[sources.length];
+        int remaining = n;
+        for (int start = 0; start < m && remaining > numComponents; start += CANCELLATION_CHECK_INTERVAL)
+        {
+            if (cancelled.getAsBoolean())
+                return null;
+
+            int end = Math.min(m, start + CANCELLATION_CHECK_INTERVAL);
+            for (int i = start; i < end; i++)
+            {
+                int j = i + random.nextInt(m - i);
+                int e = order[j];
+                order[j] = order[i];
+                order[i] = e;
+            }
+            graph.getEdges(order, start, end, sources, targets);
+
+            for (int i = 0; i < end - start && remaining > numComponents; i++)
+            {
+                int rootSource = find(parent, sources[i]);
+                int rootTarget = find(parent, targets[i]);
+                if (rootSource != rootTarget)
+                {
+                    parent[Math.max(rootSource, rootTarget)] = Math.min(rootSource, rootTarget);
+                    remaining--;
+                }
+            }
+        }
+
+        for (int i = 0; i < n; i++)
+            parent[i] = find(parent, i);
+        return parent;
+    }
+
+    /**
+     * Contract the graph until numComponents vertices remain, using all the threads of the common pool for this single trial.
+     * Each edge gets a random rank computed from the seed, and the edges are contracted by increasing rank.
+     * Instead of sorting the edges, each pass merges in parallel, in a shared union-find, the edges whose rank is in a window.
+     * The windows start with about as many edges as vertices and double in size until one of them brings the union-find
+     * to numComponents sets or fewer, then this last window is cut in two by dichotomy until it holds about as many edges as vertices.
+     * Only the edges of this live window are then copied, sorted by rank and searched without reading the graph again.
+     * So the number of passes over the edges is about 2 log2(m'/n), where m' is the number of edges a sequential contraction merges,
+     * and the memory used is linear in the number of vertices, whatever the number of edges.
+     * If the graph has more than numComponents connected components, the components are returned.
+     * @param graph the graph to contract
+     * @param numComponents the number of vertices to keep
+     * @param seed the seed of the trial
+     * @return a label for each vertex, the vertices with the same label are merged in the same vertex
+     * @throws IllegalArgumentException if the graph is null or numComponents is lower than 1
+     */
+    public static int[] contractParallel(EdgeList graph, int numComponents, long seed)
+    {
+        return contractParallel(graph, numComponents, seed, () -> false);
+    }
+
+    /**
+     * Same as contractParallel(IndexedGraph, int, long), but the contraction can be stopped before its end
+     * @param graph the graph to contract
+     * @param numComponents the number of vertices to keep
+     * @param seed the seed of the trial
+     * @param cancelled checked before each range of edges is merged, the contraction stops as soon as it returns true
+     * @return a label for each vertex, or null if the contraction was cancelled
+     * @throws IllegalArgumentException if the graph is null or numComponents is lower than 1
+     */
+    static int[] contractParallel(EdgeList graph, int numComponents, long seed, BooleanSupplier cancelled)
+    {
+        checkArguments(graph, numComponents);
+
+        //union-find with every edge of rank lower than low merged, it always has more than numComponents sets
+        ConcurrentUnionFind base = new ConcurrentUnionFind(graph.getNumVertices());
+        if (base.getNumSets() <= numComponents)
+            return base.labels();
+
+        //width of a window of ranks holding about LIVE_EDGES_PER_VERTEX edges per vertex
+        int numEdges = Math.max(1, graph.getNumEdges());
+        long liveWidth = Math.max(1, RANK_MASK / numEdges * Math.min(numEdges, (long) LIVE_EDGES_PER_VERTEX * graph.getNumVertices()));
+        long low = 0;
+        long high = RANK_MASK + 1;
+        long width = liveWidth;
+        while (low <= RANK_MASK)
+        {
+            if (cancelled.getAsBoolean())
+                return null;
+
+            long end = Math.min(RANK_MASK + 1, low + width);
+            ConcurrentUnionFind candidate = mergeRanks(graph, seed, base, low, end);
+            if (candidate.getNumSets() == numComponents)
+                return candidate.labels();
+
+            if (candidate.getNumSets() < numComponents)
+            {
+                high = end;
+                break;
+            }
+            base = candidate;
+            low = end;
+            width = Math.min(RANK_MASK + 1, 2 * width);
+        }
+        if (low > RANK_MASK)
+            //every edge is merged and there are still more than numComponents sets: the components are returned
+            return base.labels();
+
+        while (high - low > liveWidth)
+        {
+            if (cancelled.getAsBoolean())
+                return null;
+
+            long middle = low + (high - low) / 2;
+            ConcurrentUnionFind candidate = mergeRanks(graph, seed, base, low, middle);
+            if (candidate.getNumSets() == numComponents)
+                return candidate.labels();
+
+            if (candidate.getNumSets() > numComponents)
+            {
+                base = candidate;
+                low = middle;
+            }
+            else
+                high = middle;
+        }
+
+        //the live window: the edges with a rank in [low, high), sorted by rank, the ranks being cut to 31 bits in the window to hold the edge too
+        long from = low;
+        int shift = Math.max(0, 63 - Long.numberOfLeadingZeros(high - low) - 30);
+        long to = high;
+        long[] live = IntStream.range(0, graph.getNumEdges()).parallel()
+                .filter(e -> rank(seed, e) >= from && rank(seed, e) < to)
+                .mapToLong(e -> (rank(seed, e) - from) >>> shift << 32 | e)
+                .toArray();
+        Arrays.parallelSort(live);
+        int[] edges = new int[live.length];
+        for (int i = 0; i < live.length; i++)
+            edges[i] = (int) live[i];
+        int[] sources = new int[live.length];
+        int[] targets = new int[live.length];
+        graph.getEdges(edges, 0, edges.length, sources, targets);
+        return search(base, sources, targets, numComponents, cancelled);
+    }
+
+    /**
+     * Search by dichotomy the position of a range of edges where the union-find reaches numComponents sets, then merge the edges up to it
+     * @param base the union-find before the range, with more than numComponents sets
+     * @param sources the source of each edge of the range, in the order of the trial
+     * @param targets the target of each edge of the range, in the order of the trial
+     * @param numComponents the number of sets to reach, merging the whole range goes below it
+     * @param cancelled checked before each step of the dichotomy, the search stops as soon as it returns true
+     * @return the labels of the union-find with numComponents sets, or null if the search was cancelled
+     */
+    private static int[] search(ConcurrentUnionFind base, int[] sources, int[] targets, int numComponents, BooleanSupplier cancelled)
+    {
+        ConcurrentUnionFind res = base;
+        int low = 0;
+        int high = sources.length;
+        while (high - low > Connectivity.PARALLEL_THRESHOLD)
+        {
+            if (cancelled.getAsBoolean())
+                return null;
+
+            int middle = low + (high - low) / 2;
+            ConcurrentUnionFind candidate = merge(res, sources, targets, low, middle);
+            if (candidate.getNumSets() == numComponents)
+                return candidate.labels();
+
+            if (candidate.getNumSets() > numComponents)
+            {
+                res = candidate;
+                low = middle;
+            }
+            else
+                high = middle;
+        }
+
+        for (int i = low; i < high && res.getNumSets() > numComponents; i++)
+            res.union(sources[i], targets[i]);
+        return res.labels();
+    }
+
+    /**
+     * Copy the given union-find and merge the edges with a rank in [from, to) in the copy, in parallel if the graph is big enough
+     * @param graph the graph
+     * @param seed the seed giving the ranks of the edges
+     * @param base the union-find to start from, it is not modified
+     * @param from the lowest rank to merge, included
+     * @param to the highest rank to merge, excluded
+     * @return the new union-find
+     */
+    private static ConcurrentUnionFind mergeRanks(EdgeList graph, long seed, ConcurrentUnionFind base, long from, long to)
+    {
+        ConcurrentUnionFind res = new ConcurrentUnionFind(base);
+        Connectivity.forEachEdge(graph, (e, source, target) -> {
+            long rank = rank(seed, e);
+            if (rank >= from && rank < to)
+                res.union(source, target);
+        });
+        return res;
+    }
+
+    /**
+     * Return the random rank of an edge in the given trial, between 0 and 2^62 excluded
+     * @param seed the seed of the trial
+     * @param edge the index of the edge
+     * @return the rank of the edge
+     */
+    static long rank(long seed, long edge)
+    {
+        return mix(seed ^ (edge * 0xC2B2AE3D27D4EB4FL)) & RANK_MASK;
+    }
+
+    /**
+     * Copy the given union-find and merge the edges [from, to) of the given arrays in the copy, in parallel if there are enough of them
+     * @param base the union-find to start from, it is not modified
+     * @param sources the source of each edge
+     * @param targets the target of each edge
+     * @param from the first edge to merge, included
+     * @param to the last edge to merge, excluded
+     * @return the new union-find
+     */
+    private static ConcurrentUnionFind merge(ConcurrentUnionFind base, int[] sources, int[] targets, int from, int to)
+    {
+        ConcurrentUnionFind res = new ConcurrentUnionFind(base);
+        IntStream indexes = IntStream.range(from, to);
+        if (to - from >= Connectivity.PARALLEL_THRESHOLD)
+            indexes = indexes.parallel();
+        indexes.forEach(i -> res.union(sources[i], targets[i]));
+        return res;
+    }
+
+    /**
+     * Scramble the bits of the given value (finalizer of the SplitMix64 generator)
+     * @param value the value to scramble
+     * @return the scrambled value
+     */
+    static long mix(long value)
+    {
+        long z = value;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Find the root of the given element in a sequential union-find, halving the path on the way
+     * @param parent the parent of each element
+     * @param element the element
+     * @return the root of the element
+     */
+    private static int find(int[] parent, int element)
+    {
+        int x = element;
+        while (parent[x] != x)
+        {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    /**
+     * Check the arguments of the contraction methods
+     * @param graph the graph to contract
+     * @param numComponents the number of vertices to keep
+     * @throws IllegalArgumentException if the graph is null or numComponents is lower than 1
+     */
+    private static void checkArguments(EdgeList graph, int numComponents)
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        if (numComponents < 1)
+            throw new IllegalArgumentException("There must be at least one vertex left after the contraction");
+    }
+}
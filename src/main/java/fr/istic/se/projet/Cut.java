@@ -0,0 +1,126 @@
+package fr.istic.se.projet;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Class representing a cut of a graph: the two sides of the partition and the number of edges crossing it
+ */
+public class Cut
+{
+    private final int value;
+    private final Set<Graph.Vertex> firstSide;
+    private final Set<Graph.Vertex> secondSide;
+
+    /**
+     * Create a new cut
+     * @param value the number of edges between the two sides
+     * @param firstSide the vertices on the first side of the cut
+     * @param secondSide the vertices on the second side of the cut
+     * @throws IllegalArgumentException if a side is null or the value is negative
+     */
+    public Cut(int value, Set<Graph.Vertex> firstSide, Set<Graph.Vertex> secondSide)
+    {
+        if (firstSide == null || secondSide == null)
+            throw new IllegalArgumentException("The sides of the cut must not be null");
+
+        if (value < 0)
+            throw new IllegalArgumentException("The value of the cut must not be negative");
+
+        this.value = value;
+        this.firstSide = Collections.unmodifiableSet(firstSide);
+        this.secondSide = Collections.unmodifiableSet(secondSide);
+    }
+
+    /**
+     * Create the cut separating the vertices with the same label as the vertex 0 from the others.
+     * @param graph the graph which is cut
+     * @param labels a label for each vertex, the vertices with the same label are on the same side
+     * @param value the number of edges crossing the cut
+     * @return the corresponding cut
+     */
+    static Cut fromLabels(EdgeList graph, int[] labels, int value)
+    {
+        Set<Graph.Vertex> firstSide = new HashSet<>();
+        Set<Graph.Vertex> secondSide = new HashSet<>();
+        for (int i = 0; i < labels.length; i++)
+        {
+            if (labels[i] == labels[0])
+                firstSide.add(graph.getVertex(i));
+            else
+                secondSide.add(graph.getVertex(i));
+        }
+        return new Cut(value, firstSide, secondSide);
+    }
+
+    /**
+     * Getter for the value attribute
+     * @return the number of edges crossing the cut
+     */
+    public int getValue()
+    {
+        return value;
+    }
+
+    /**
+     * Getter for the firstSide attribute
+     * @return the vertices on the first side of the cut
+     */
+    public Set<Graph.Vertex> getFirstSide()
+    {
+        return firstSide;
+    }
+
+    /**
+     * Getter for the secondSide attribute
+     * @return the vertices on the second side of the cut
+     */
+    public Set<Graph.Vertex> getSecondSide()
+    {
+        return secondSide;
+    }
+
+    /**
+     * Return a string describing the cut, its value then its two sides
+     * @return the text description of the cut
+     */
+    @Override
+    public String toString()
+    {
+        return value + " : " + firstSide + " | " + secondSide;
+    }
+
+    /**
+     * Override the equals method from Object Class
+     * Two cuts are considered equals if they have the same value and split the vertices the same way, whatever the order of their sides
+     * @param otherCut the other cut to compare
+     * @return true if the cuts are the same, false otherwise
+     */
+    @Override
+    public boolean equals(Object otherCut)
+    {
+        if (otherCut == this)
+            return true;
+
+        if (!(otherCut instanceof Cut))
+            return false;
+
+        Cut other = (Cut) otherCut;
+        if (value != other.value)
+            return false;
+
+        return (firstSide.equals(other.firstSide) && secondSide.equals(other.secondSide))
+                || (firstSide.equals(other.secondSide) && secondSide.equals(other.firstSide));
+    }
+
+    /**
+     * Override the hashCode method, consistent with equals: it does not depend on the order of the sides
+     * @return the hashcode of the cut
+     */
+    @Override
+    public int hashCode()
+    {
+        return 31 * value + (firstSide.hashCode() ^ secondSide.hashCode());
+    }
+}
@@ -0,0 +1,176 @@
+package fr.istic.se.projet;
+
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Class counting and listing the edges crossing a partition of a graph.
+ * It is used to score the result of every trial, and to check a cut coming from somewhere else.
+ * The partitions are given as a label for each vertex of the graph, two vertices being on the same side if they have the same label.
+ * The edges of an indexed graph are counted with the vector API when the jdk.incubator.vector module is added to the JVM
+ * (--add-modules jdk.incubator.vector), and with a branch-free scalar loop otherwise.
+ */
+public class CutCounter
+{
+    //true if the incubator vector module is present, so that VectorCutCounter can be loaded
+    static final boolean VECTOR_ENABLED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    /**
+     * Hide the constructor
+     */
+    private CutCounter()
+    {}
+
+    /**
+     * Count the edges whose endpoints have different labels.
+     * The edges are counted by blocks, in parallel on big graphs.
+     * For an indexed graph, they are read straight from its flat arrays.
+     * @param graph the graph
+     * @param labels a label for each vertex of the graph
+     * @return the number of edges crossing the partition
+     * @throws IllegalArgumentException if the graph or the labels are null, or there is not one label per vertex
+     */
+    public static int count(EdgeList graph, int[] labels)
+    {
+        checkArguments(graph, labels);
+
+        int numEdges = graph.getNumEdges();
+        if (numEdges < Connectivity.PARALLEL_THRESHOLD)
+            return countBlock(graph, labels, 0, numEdges);
+
+        int numBlocks = (numEdges + Connectivity.BLOCK_SIZE - 1) / Connectivity.BLOCK_SIZE;
+        return IntStream.range(0, numBlocks).parallel()
+                .map(block -> countBlock(graph, labels, block * Connectivity.BLOCK_SIZE, Math.min(numEdges, (block + 1) * Connectivity.BLOCK_SIZE)))
+                .sum();
+    }
+
+    /**
+     * Return the indexes of the edges whose endpoints have different labels
+     * @param graph the graph
+     * @param labels a label for each vertex of the graph
+     * @return the indexes of the edges crossing the partition, in increasing order
+     * @throws IllegalArgumentException if the graph or the labels are null, or there is not one label per vertex
+     */
+    public static int[] crossingEdges(EdgeList graph, int[] labels)
+    {
+        checkArguments(graph, labels);
+
+        int numEdges = graph.getNumEdges();
+        int numBlocks = (numEdges + Connectivity.BLOCK_SIZE - 1) / Connectivity.BLOCK_SIZE;
+        IntStream blocks = IntStream.range(0, numBlocks);
+        if (numEdges >= Connectivity.PARALLEL_THRESHOLD)
+            blocks = blocks.parallel();
+
+        return blocks.flatMap(block -> {
+            IntStream.Builder res = IntStream.builder();
+            graph.forEachEdge(block * Connectivity.BLOCK_SIZE, Math.min(numEdges, (block + 1) * Connectivity.BLOCK_SIZE), (e, source, target) -> {
+                if (labels[source] != labels[target])
+                    res.add(e);
+            });
+            return res.build();
+        }).toArray();
+    }
+
+    /**
+     * Return the labels of the partition separating the given vertices from the rest of the graph.
+     * The vertices of the side get the label 0, the others the label 1.
+     * @param graph the graph
+     * @param side the vertices of one side of the partition
+     * @return a label for each vertex of the graph
+     * @throws IllegalArgumentException if the graph or the side is null
+     */
+    public static int[] labels(EdgeList graph, Set<Graph.Vertex> side)
+    {
+        if (graph == null || side == null)
+            throw new IllegalArgumentException("The graph and the side must not be null");
+
+        int[] res = new int[graph.getNumVertices()];
+        for (int i = 0; i < res.length; i++)
+            res[i] = side.contains(graph.getVertex(i)) ? 0 : 1;
+        return res;
+    }
+
+    /**
+     * Count the edges of the graph crossing the given cut, which can be used to check the value of a cut.
+     * The vertices of the graph which are not on the first side of the cut are considered on the second side.
+     * @param graph the graph
+     * @param cut the cut to check
+     * @return the number of edges of the graph between the two sides of the cut
+     * @throws IllegalArgumentException if the graph or the cut is null
+     */
+    public static int count(EdgeList graph, Cut cut)
+    {
+        if (cut == null)
+            throw new IllegalArgumentException("The cut must not be null");
+
+        return count(graph, labels(graph, cut.getFirstSide()));
+    }
+
+    /**
+     * Count the crossing edges of the graph between the given bounds
+     * @param graph the graph
+     * @param labels the label of each vertex
+     * @param from the first edge to count, included
+     * @param to the last edge to count, excluded
+     * @return the number of crossing edges between from and to
+     */
+    private static int countBlock(EdgeList graph, int[] labels, int from, int to)
+    {
+        if (graph instanceof IndexedGraph)
+            return countBlock(((IndexedGraph) graph).getSources(), ((IndexedGraph) graph).getTargets(), labels, from, to);
+
+        int[] res = new int[1];
+        graph.forEachEdge(from, to, (e, source, target) -> res[0] += labels[source] != labels[target] ? 1 : 0);
+        return res[0];
+    }
+
+    /**
+     * Count the crossing edges between the given bounds, in the flat arrays of an indexed graph,
+     * with the vector API if it is enabled, with the scalar loop otherwise
+     * @param sources the first endpoint of each edge
+     * @param targets the second endpoint of each edge
+     * @param labels the label of each vertex
+     * @param from the first edge to count, included
+     * @param to the last edge to count, excluded
+     * @return the number of crossing edges between from and to
+     */
+    private static int countBlock(int[] sources, int[] targets, int[] labels, int from, int to)
+    {
+        if (VECTOR_ENABLED)
+            return VectorCutCounter.countBlock(sources, targets, labels, from, to);
+        return countScalar(sources, targets, labels, from, to);
+    }
+
+    /**
+     * Count the crossing edges between the given bounds, in the flat arrays of an indexed graph, one edge at a time.
+     * The loop has no branch and only reads the arrays, so that it stays cheap however random the labels are.
+     * @param sources the first endpoint of each edge
+     * @param targets the second endpoint of each edge
+     * @param labels the label of each vertex
+     * @param from the first edge to count, included
+     * @param to the last edge to count, excluded
+     * @return the number of crossing edges between from and to
+     */
+    static int countScalar(int[] sources, int[] targets, int[] labels, int from, int to)
+    {
+        int res = 0;
+        for (int e = from; e < to; e++)
+            res += labels[sources[e]] != labels[targets[e]] ? 1 : 0;
+        return res;
+    }
+
+    /**
+     * Check the arguments of the counting methods
+     * @param graph the graph
+     * @param labels the labels of its vertices
+     * @throws IllegalArgumentException if the graph or the labels are null, or there is not one label per vertex
+     */
+    private static void checkArguments(EdgeList graph, int[] labels)
+    {
+        if (graph == null || labels == null)
+            throw new IllegalArgumentException("The graph and the labels must not be null");
+
+        if (labels.length != graph.getNumVertices())
+            throw new IllegalArgumentException(String.format("There must be one label per vertex (%d labels for %d vertices)", labels.length, graph.getNumVertices()));
+    }
+}
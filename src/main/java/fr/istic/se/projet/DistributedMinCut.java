@@ -0,0 +1,460 @@
+package fr.istic.se.projet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Coordinator running the trials of the Karger's algorithm in several local worker processes, see TrialWorker.
+ * The graph is written once to a graph file that every worker maps, so it is never sent over the network
+ * and the pages of the file are shared between the processes.
+ * The trials are split in ranges of consecutive trials, all driven by the same base seed, which are sent to the workers
+ * over local sockets as they become free. A worker answers each range with the best cut it found in it.
+ * If a worker is lost, its connection is closed and the range it was running is given to another worker,
+ * so the result is the same as long as one worker is left. A worker which does not answer a range in time,
+ * see rangeTimeoutMillis(int, int), is considered lost even if its process is still alive.
+ */
+public class DistributedMinCut
+{
+    //number of trials telling a worker to stop
+    static final int STOP = -1;
+    //time given to a worker to end once told to stop, before it is killed
+    private static final long STOP_TIMEOUT_SECONDS = 5;
+    //time given to a worker to answer a range, whatever its size
+    private static final long MIN_RANGE_TIMEOUT_MILLIS = 30_000;
+    //number of edges a trial is assumed to contract per millisecond at worst, to bound the time of a range
+    private static final long EDGES_PER_MILLI = 1_000;
+
+    private final int numWorkers;
+    private final int trialsPerRange;
+    private volatile int completedTrials = 0;
+
+    /**
+     * State of a run, shared by the threads talking to the workers
+     */
+    private static class Run
+    {
+        private final long seed;
+        private final int numVertices;
+        private final int numEdges;
+        private final Deque<int[]> ranges = new ArrayDeque<>();
+        private final List<Process> processes = new ArrayList<>();
+        private int remainingRanges;
+        private int activeConnections = 0;
+        private int lostWorkers = 0;
+        private int completedTrials = 0;
+        private Contraction.Result best = null;
+
+        /**
+         * Create a new run, with all its ranges to do
+         * @param graph the graph of the run
+         * @param numberOfIteration the number of trials
+         * @param trialsPerRange the number of trials of each range
+         * @param seed the base seed of the trials
+         */
+        Run(EdgeList graph, int numberOfIteration, int trialsPerRange, long seed)
+        {
+            this.seed = seed;
+            this.numVertices = graph.getNumVertices();
+            this.numEdges = graph.getNumEdges();
+            for (int first = 0; first < numberOfIteration; first += trialsPerRange)
+                ranges.add(new int[]{first, Math.min(trialsPerRange, numberOfIteration - first)});
+            remainingRanges = ranges.size();
+        }
+
+        /**
+         * Wait for a range to run, as a range given to a worker can come back if the worker is lost
+         * @return the first trial and the number of trials of the range, or null if all the ranges are done
+         * @throws InterruptedException if the thread is interrupted while waiting
+         */
+        synchronized int[] nextRange() throws InterruptedException
+        {
+            while (ranges.isEmpty() && remainingRanges > 0)
+                wait();
+            return ranges.poll();
+        }
+
+        /**
+         * Keep the result of a range
+         * @param range the range
+         * @param result the best result of the range
+         */
+        synchronized void completed(int[] range, Contraction.Result result)
+        {
+            completedTrials += range[1];
+            if (best == null || result.getValue() < best.getValue())
+                best = result;
+            remainingRanges--;
+            notifyAll();
+        }
+
+        /**
+         * Give back a range whose worker was lost, so another worker runs it
+         * @param range the range
+         */
+        synchronized void failed(int[] range)
+        {
+            ranges.addFirst(range);
+            notifyAll();
+        }
+
+        /**
+         * Count a worker whose connection was lost, even if its process is still alive
+         */
+        synchronized void lost()
+        {
+            lostWorkers++;
+            notifyAll();
+        }
+
+        /**
+         * Count a new connection to a worker
+         */
+        synchronized void connected()
+        {
+            activeConnections++;
+        }
+
+        /**
+         * Count the end of a connection to a worker
+         */
+        synchronized void disconnected()
+        {
+            activeConnections--;
+            notifyAll();
+        }
+
+        /**
+         * Tell if all the ranges are done
+         * @return true if all the ranges are done, false otherwise
+         */
+        synchronized boolean isDone()
+        {
+            return remainingRanges == 0;
+        }
+
+        /**
+         * Wait until all the ranges are done
+         * @throws IOException if all the workers are lost before the end, either dead or not answering
+         * @throws InterruptedException if the thread is interrupted while waiting
+         */
+        synchronized void await() throws IOException, InterruptedException
+        {
+            while (remainingRanges > 0)
+            {
+                if (lostWorkers >= processes.size() || activeConnections == 0 && processes.stream().noneMatch(Process::isAlive))
+                    throw new IOException("All the workers were lost before the end of the trials");
+                wait(100);
+            }
+        }
+    }
+
+    /**
+     * Create a new coordinator
+     * @param numWorkers the number of worker processes to launch
+     * @param trialsPerRange the number of trials sent to a worker at once, which are lost if the worker is lost
+     * @throws IllegalArgumentException if a number is lower than 1
+     */
+    public DistributedMinCut(int numWorkers, int trialsPerRange)
+    {
+        if (numWorkers < 1)
+            throw new IllegalArgumentException("There must be at least one worker");
+
+        if (trialsPerRange < 1)
+            throw new IllegalArgumentException("There must be at least one trial per range");
+
+        this.numWorkers = numWorkers;
+        this.trialsPerRange = trialsPerRange;
+    }
+
+    /**
+     * Find the mincut of the given graph and the partition giving it, the trials running in the worker processes.
+     * If the graph is disconnected or has a bridge, the corresponding cut is returned without launching any worker.
+     * @param graph the graph in which to find the mincut
+     * @param numberOfIteration the number of times the algorithm must iterate
+     * @throws IllegalArgumentException if the graph is null or does not contain at least two vertices, or the number of iterations is lower than 1
+     * @throws IOException if the graph file can not be written, or all the workers are lost
+     * @return the smallest cut found
+     */
+    public Cut minCutPartition(Graph graph, int numberOfIteration) throws IOException
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        if (graph.getNumVertices() < 2)
+            throw new IllegalArgumentException("the graph must contain at least to vertices in order to find the mincut");
+
+        if (numberOfIteration < 1)
+            throw new IllegalArgumentException("There must be at least one iteration");
+
+        IndexedGraph indexedGraph = new IndexedGraph(graph);
+        Cut trivialCut = Connectivity.trivialCut(indexedGraph);
+        if (trivialCut != null)
+            return trivialCut;
+
+        return minCutPartition(indexedGraph, numberOfIteration);
+    }
+
+    /**
+     * Find the mincut of a graph given as a list of edges and the partition giving it, the trials running in the worker processes.
+     * If the graph is disconnected, the cut of value 0 is returned without launching any worker.
+     * @param graph the graph in which to find the mincut
+     * @param numberOfIteration the number of times the algorithm must iterate
+     * @throws IllegalArgumentException if the graph is null or does not contain at least two vertices, or the number of iterations is lower than 1
+     * @throws IOException if the graph file can not be written, or all the workers are lost
+     * @return the smallest cut found
+     */
+    public Cut minCutPartition(EdgeList graph, int numberOfIteration) throws IOException
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        if (graph.getNumVertices() < 2)
+            throw new IllegalArgumentException("the graph must contain at least to vertices in order to find the mincut");
+
+        if (numberOfIteration < 1)
+            throw new IllegalArgumentException("There must be at least one iteration");
+
+        int[] components = Connectivity.components(graph);
+        if (Arrays.stream(components).anyMatch(label -> label != components[0]))
+            return Cut.fromLabels(graph, components, 0);
+
+        Path graphFile = Files.createTempFile("karger", ".graph");
+        try
+        {
+            //the workers map the file, the copy of the coordinator is not needed
+            OffHeapGraph.copyOf(graph, graphFile).close();
+            Contraction.Result best = run(graph, graphFile, numberOfIteration);
+            return Cut.fromLabels(graph, best.getLabels(), best.getValue());
+        }
+        finally
+        {
+            Files.deleteIfExists(graphFile);
+        }
+    }
+
+    /**
+     * Return the number of trials whose result was received from the workers during the last run,
+     * which is the number of iterations if no range was lost for good
+     * @return the number of trials completed, 0 if no run was done
+     */
+    int getCompletedTrials()
+    {
+        return completedTrials;
+    }
+
+    /**
+     * Launch a worker process, running TrialWorker with the same java and the same class path as this process.
+     * The cores of the machine are shared between the workers, each one running its trials with as many threads.
+     * @param port the port of the coordinator on the loopback address
+     * @param graphFile the graph file the worker must map
+     * @return the process of the worker
+     * @throws IOException if the process can not be launched
+     */
+    Process launchWorker(int port, Path graphFile) throws IOException
+    {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), TrialWorker.class.getName(),
+                InetAddress.getLoopbackAddress().getHostAddress(), Integer.toString(port), graphFile.toString(),
+                Integer.toString(workerParallelism()))
+                .inheritIO()
+                .start();
+    }
+
+    /**
+     * Return the number of threads of each worker, so that all the workers together use one thread per core
+     * @return the number of cores divided by the number of workers, at least 1
+     */
+    int workerParallelism()
+    {
+        return Math.max(1, Runtime.getRuntime().availableProcessors() / numWorkers);
+    }
+
+    /**
+     * Launch the workers, give them the ranges of trials until all of them are done, then stop the workers
+     * @param graph the graph of the run
+     * @param graphFile the graph file shared with the workers
+     * @param numberOfIteration the number of trials
+     * @return the best result of all the trials
+     * @throws IOException if all the workers are lost
+     */
+    private Contraction.Result run(EdgeList graph, Path graphFile, int numberOfIteration) throws IOException
+    {
+        Run run = new Run(graph, numberOfIteration, trialsPerRange, ThreadLocalRandom.current().nextLong());
+        try (ServerSocket server = new ServerSocket(0, numWorkers, InetAddress.getLoopbackAddress()))
+        {
+            Thread acceptor = new Thread(() -> accept(this, server, run), "karger-coordinator");
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            synchronized (run)
+            {
+                for (int i = 0; i < numWorkers; i++)
+                    run.processes.add(launchWorker(server.getLocalPort(), graphFile));
+            }
+
+            run.await();
+            synchronized (run)
+            {
+                completedTrials = run.completedTrials;
+                return run.best;
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the workers", e);
+        }
+        finally
+        {
+            //the workers are only told to stop once all the ranges are done, otherwise they are killed right away
+            stopWorkers(run, run.isDone() ? STOP_TIMEOUT_SECONDS : 0);
+        }
+    }
+
+    /**
+     * Return the time given to a worker to answer a range, after which it is considered lost.
+     * It grows with the number of trials of the range and the number of edges of the graph, with a minimum of MIN_RANGE_TIMEOUT_MILLIS.
+     * @param trials the number of trials of the range
+     * @param numEdges the number of edges of the graph
+     * @return the timeout in milliseconds, lower than Integer.MAX_VALUE
+     */
+    long rangeTimeoutMillis(int trials, int numEdges)
+    {
+        long millis = MIN_RANGE_TIMEOUT_MILLIS + trials * Math.max(1, numEdges / EDGES_PER_MILLI);
+        return Math.min(Integer.MAX_VALUE, millis);
+    }
+
+    /**
+     * Accept the connections of the workers until the server socket is closed, each one being served by its own thread
+     * @param coordinator the coordinator, giving the timeout of the ranges
+     * @param server the server socket
+     * @param run the state of the run
+     */
+    private static void accept(DistributedMinCut coordinator, ServerSocket server, Run run)
+    {
+        while (!server.isClosed())
+        {
+            try
+            {
+                Socket socket = server.accept();
+                run.connected();
+                Thread thread = new Thread(() -> serve(coordinator, socket, run), "karger-worker-connection");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            catch (IOException e)
+            {
+                //the server socket was closed at the end of the run
+                return;
+            }
+        }
+    }
+
+    /**
+     * Send the ranges to a worker until all of them are done, then tell it to stop.
+     * If the connection is lost, or the worker does not answer a range in time, the range the worker was running is given back to the other ones.
+     * @param coordinator the coordinator, giving the timeout of the ranges
+     * @param socket the connection to the worker
+     * @param run the state of the run
+     */
+    private static void serve(DistributedMinCut coordinator, Socket socket, Run run)
+    {
+        int[] range = null;
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())))
+        {
+            out.writeLong(run.seed);
+            while ((range = run.nextRange()) != null)
+            {
+                out.writeInt(range[0]);
+                out.writeInt(range[1]);
+                out.flush();
+
+                socket.setSoTimeout((int) coordinator.rangeTimeoutMillis(range[1], run.numEdges));
+                int value = in.readInt();
+                int numLabels = in.readInt();
+                if (numLabels != run.numVertices)
+                    throw new IOException(String.format("A worker sent %d labels instead of %d", numLabels, run.numVertices));
+
+                int[] labels = new int[numLabels];
+                for (int i = 0; i < labels.length; i++)
+                    labels[i] = in.readInt();
+                run.completed(range, new Contraction.Result(value, labels));
+                range = null;
+            }
+            out.writeInt(0);
+            out.writeInt(STOP);
+            out.flush();
+        }
+        catch (SocketTimeoutException e)
+        {
+            Logger.getGlobal().warning("A worker did not answer in time, its trials are given to the other ones");
+            run.lost();
+            if (range != null)
+                run.failed(range);
+        }
+        catch (IOException e)
+        {
+            Logger.getGlobal().log(Level.WARNING, "A worker was lost, its trials are given to the other ones", e);
+            run.lost();
+            if (range != null)
+                run.failed(range);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            if (range != null)
+                run.failed(range);
+        }
+        finally
+        {
+            run.disconnected();
+        }
+    }
+
+    /**
+     * Wait for the workers to end, killing the ones which do not end in time
+     * @param run the state of the run
+     * @param timeoutSeconds the time given to each worker to end
+     */
+    private static void stopWorkers(Run run, long timeoutSeconds)
+    {
+        List<Process> processes;
+        synchronized (run)
+        {
+            processes = new ArrayList<>(run.processes);
+        }
+        for (Process process : processes)
+        {
+            try
+            {
+                if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS))
+                    process.destroyForcibly();
+            }
+            catch (InterruptedException e)
+            {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package fr.istic.se.projet;
+
+/**
+ * Interface of a graph seen as a list of non-directed edges between vertices numbered from 0 to getNumVertices() - 1.
+ * This is all the contraction trials need, so they can run on any storage of the edges, in the heap or not.
+ */
+public interface EdgeList
+{
+    /**
+     * Function receiving the edges enumerated by forEachEdge
+     */
+    @FunctionalInterface
+    interface EdgeConsumer
+    {
+        /**
+         * Receive an edge
+         * @param edge the index of the edge
+         * @param source the index of its first vertex
+         * @param target the index of its second vertex
+         */
+        void accept(int edge, int source, int target);
+    }
+
+    /**
+     * Return the number of vertices in the graph
+     * @return the number of vertices
+     */
+    int getNumVertices();
+
+    /**
+     * Return the number of non-directed edges in the graph, each edge being counted once
+     * @return the number of edges
+     */
+    int getNumEdges();
+
+    /**
+     * Return the vertex with the given index
+     * @param index the index of the vertex
+     * @return the vertex
+     */
+    Graph.Vertex getVertex(int index);
+
+    /**
+     * Return the index of the first endpoint of the given edge
+     * @param edge the index of the edge
+     * @return the index of its first vertex
+     */
+    int getSource(int edge);
+
+    /**
+     * Return the index of the second endpoint of the given edge
+     * @param edge the index of the edge
+     * @return the index of its second vertex
+     */
+    int getTarget(int edge);
+
+    /**
+     * Give the edges from the index from to the index to, in increasing order, to the consumer.
+     * The algorithms which go through all the edges use this method rather than getSource and getTarget,
+     * so that a storage which is only cheap to read in order, like a compressed one, can decode the edges along the way.
+     * @param from the first edge, included
+     * @param to the last edge, excluded
+     * @param consumer the function receiving the edges
+     */
+    default void forEachEdge(int from, int to, EdgeConsumer consumer)
+    {
+        for (int e = from; e < to; e++)
+            consumer.accept(e, getSource(e), getTarget(e));
+    }
+
+    /**
+     * Read the endpoints of a batch of edges given in any order: sources[i - from] and targets[i - from] receive the endpoints of edges[i].
+     * The algorithms which read the edges in a random order use this method on batches rather than getSource and getTarget,
+     * so that a storage which is only cheap to read in order can sort the batch and decode it along the way.
+     * @param edges the indexes of the edges
+     * @param from the first position of the batch in edges, included
+     * @param to the last position of the batch in edges, excluded
+     * @param sources the array receiving the first endpoints, from its index 0
+     * @param targets the array receiving the second endpoints, from its index 0
+     */
+    default void getEdges(int[] edges, int from, int to, int[] sources, int[] targets)
+    {
+        for (int i = from; i < to; i++)
+        {
+            sources[i - from] = getSource(edges[i]);
+            targets[i - from] = getTarget(edges[i]);
+        }
+    }
+}
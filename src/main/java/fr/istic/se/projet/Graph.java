@@ -1,5 +1,9 @@
 package fr.istic.se.projet;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -102,14 +106,35 @@ public class Graph
     }
 
 
+    //format of an edge in addEdges, compiled once instead of once per edge
+    private static final Pattern EDGE_PATTERN = Pattern.compile("^\s*([^\s]+)\s?--\s?([^\s]+)\s*$");
+
+    //sizes in bytes of the objects of the graph, on a 64 bits JVM with compressed references
+    private static final int REFERENCE_BYTES = 4;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    //header, label
+    private static final int VERTEX_BYTES = 16;
+    //header, hash, coder, hashIsZero, value
+    private static final int STRING_BYTES = 24;
+    //header, hash, key, value, next
+    private static final int MAP_NODE_BYTES = 32;
+    //header, size, table, entrySet, keySet, values, modCount, threshold, loadFactor
+    private static final int MAP_BYTES = 48;
+    //header, modCount, size, elementData
+    private static final int LIST_BYTES = 24;
+
     private int numEdges = 0;
     //the adjacency map representing the different edges of the graph
     private HashMap<Vertex, List<Vertex>> adjMap = new HashMap<>();
+    //the vertices merged in each supernode created by mergeVertices, the other vertices are not in the map.
+    //null until recordMembers is called, so the contractions of Karger do not pay for it
+    private HashMap<Vertex, List<Vertex>> members = null;
 
     /**
      * Override the method toString to return a text description of the graph.
      * return all the edges as a --> b, one edge per line.
      * if the graph is empty, return a text saying it's empty
+     * The whole text is built in memory, so big graphs should rather be written by GraphExporter.
      * @return the text description of the graph
      */
     @Override
@@ -154,6 +179,83 @@ public class Graph
         return res;
     }
 
+    /**
+     * Estimate the memory used by the graph, in bytes, on a 64 bits JVM with compressed references.
+     * It counts the map, its vertices with their label, the adjacency lists, and one vertex object per list entry,
+     * as addEdge(String, String) creates a new vertex for every edge, and the map of the members of the supernodes if they are recorded.
+     * It is an estimate: the labels are counted as one byte per character and the lists as 25% bigger than needed, as on average after their growth.
+     * @return the estimated size of the graph in bytes
+     */
+    public long estimateMemoryFootprint()
+    {
+        long res = structureBytes();
+        for (Map.Entry<Vertex, List<Vertex>> entry : adjMap.entrySet())
+            res += VERTEX_BYTES + stringBytes(entry.getKey().getLabel().length()) + (long) entry.getValue().size() * VERTEX_BYTES;
+        //the members are vertices which are already counted, only the map and its lists are added
+        if (members != null)
+            res += mapBytes(members);
+        return res;
+    }
+
+    /**
+     * Estimate the memory needed by one trial of the multithreading mode of Karger.minCut, in bytes.
+     * A trial copies the map and the lists but not the vertices, and the labels of the merged vertices grow
+     * until the two last ones hold all the labels, which is counted twice for the labels of the merges in progress.
+     * @return the estimated working set of a trial in bytes
+     */
+    public long estimateTrialWorkingSet()
+    {
+        long labelsLength = 0;
+        for (Vertex vertex : adjMap.keySet())
+            //the label, a slash and the parentheses of the merge
+            labelsLength += vertex.getLabel().length() + 3;
+        return structureBytes() + 2 * stringBytes(labelsLength);
+    }
+
+    /**
+     * Estimate the size of the map, its nodes and the adjacency lists, without the vertices
+     * @return the estimated size in bytes
+     */
+    private long structureBytes()
+    {
+        return mapBytes(adjMap);
+    }
+
+    /**
+     * Estimate the size of a map of vertices to lists of vertices, its nodes and its lists, without the vertices
+     * @param map the map
+     * @return the estimated size in bytes
+     */
+    private static long mapBytes(Map<Vertex, List<Vertex>> map)
+    {
+        //the table is the next power of two holding the vertices with a load factor of 0.75
+        long tableSize = Long.highestOneBit(Math.max(1, map.size() * 4L / 3)) << 1;
+        long res = MAP_BYTES + align(ARRAY_HEADER_BYTES + tableSize * REFERENCE_BYTES);
+        for (List<Vertex> list : map.values())
+            res += MAP_NODE_BYTES + LIST_BYTES + align(ARRAY_HEADER_BYTES + list.size() * 5L / 4 * REFERENCE_BYTES);
+        return res;
+    }
+
+    /**
+     * Return the size of a string with the given number of characters, with one byte per character
+     * @param length the number of characters
+     * @return the size of the string and its array in bytes
+     */
+    private static long stringBytes(long length)
+    {
+        return STRING_BYTES + align(ARRAY_HEADER_BYTES + length);
+    }
+
+    /**
+     * Round a size up to a multiple of 8 bytes, the alignment of the objects
+     * @param bytes the size
+     * @return the aligned size
+     */
+    private static long align(long bytes)
+    {
+        return (bytes + 7) & ~7L;
+    }
+
     /**
      * Return the number of vertices in the graph
      * @return the number of vertices in the graph
@@ -207,18 +309,88 @@ public class Graph
         int added = 0;
         for (String edge : listEdges)
         {
-            if (edge == null)
+            if (addEdgeLine(edge))
+                added++;
+        }
+        computeNumEdges();
+        return added;
+    }
+
+    /**
+     * Method to easily remove several edges from the graph, with the same format as in addEdges(String[]).
+     * See removeEdge(Vertex, Vertex) for more information.
+     * This method does not throw an error if one or several edges are not in the graph, but returns the number of edges removed from the graph.
+     * @param listEdges a string array with the edges to remove
+     * @throws IllegalArgumentException if the list is null
+     * @return the number of edges removed
+     */
+    public int removeEdges(String[] listEdges)
+    {
+        if (listEdges == null)
+            throw new IllegalArgumentException("The list must not be null");
+
+        int removed = 0;
+        for (String edge : listEdges)
+        {
+            Matcher m = edge == null ? null : EDGE_PATTERN.matcher(edge);
+            if (m == null || !m.find())
                 continue;
 
-            Matcher m = Pattern.compile("^\s*([^\s]+)\s?--\s?([^\s]+)\s*$").matcher(edge);
-            if (m.find() && m.groupCount() == 2)
+            Vertex vertex1 = new Vertex(m.group(1));
+            Vertex vertex2 = new Vertex(m.group(2));
+            if (contains(vertex1) && contains(vertex2) && connected(vertex1, vertex2))
             {
-                addEdge(m.group(1), m.group(2));
-                added++;
+                removeEdge(vertex1, vertex2);
+                removed++;
             }
         }
-        computeNumEdges();
-        return added;
+        return removed;
+    }
+
+    /**
+     * Create a graph from a text file with one edge per line, with the same format as in addEdges(String[]) :<p>
+     *  v1 -- v2
+     * <p>
+     * The lines which do not match this format are ignored.
+     * @param path the path of the file to read
+     * @return the graph with the edges of the file
+     * @throws IllegalArgumentException if the path is null
+     * @throws IOException if the file can not be read
+     */
+    public static Graph read(Path path) throws IOException
+    {
+        if (path == null)
+            throw new IllegalArgumentException("The path must not be null");
+
+        Graph graph = new Graph();
+        try (BufferedReader reader = Files.newBufferedReader(path))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+                graph.addEdgeLine(line);
+        }
+        graph.computeNumEdges();
+        return graph;
+    }
+
+    /**
+     * Private method parsing an edge with the form "v1 -- v2" and adding it to the graph.
+     * The number of edges is not updated.
+     * @param edge the text of the edge
+     * @return true if the edge was added, false if it is null or does not have the right format
+     */
+    private boolean addEdgeLine(String edge)
+    {
+        if (edge == null)
+            return false;
+
+        Matcher m = EDGE_PATTERN.matcher(edge);
+        if (m.find() && m.groupCount() == 2)
+        {
+            addEdge(m.group(1), m.group(2));
+            return true;
+        }
+        return false;
     }
 
 
@@ -313,9 +485,44 @@ public class Graph
 
         //if a vertex is not connected to any other vertex, we remove it
         if(adjMap.get(v1).isEmpty())
+        {
             adjMap.remove(v1);
+            if (members != null)
+                members.remove(v1);
+        }
         if(adjMap.get(v2).isEmpty())
+        {
             adjMap.remove(v2);
+            if (members != null)
+                members.remove(v2);
+        }
+    }
+
+    /**
+     * Start recording the vertices merged in each supernode by mergeVertices, to be given by getMembers.
+     * It is not done by default, as it costs a list per merge in the contractions of Karger which only need the size of the cut.
+     * The vertices which were merged before the call are their own only member, and the recording is kept by the copies of the graph.
+     */
+    public void recordMembers()
+    {
+        if (members == null)
+            members = new HashMap<>();
+    }
+
+    /**
+     * Return the vertices merged in the given vertex by mergeVertices, in no particular order.
+     * A vertex which is not the result of a merge, or which was merged before recordMembers was called, is its only member.
+     * @param vertex a vertex of the graph
+     * @return the members of the vertex, which can not be modified
+     * @throws IllegalArgumentException if the vertex is null or not part of the graph
+     */
+    public List<Vertex> getMembers(Vertex vertex)
+    {
+        if (!contains(vertex))
+            throw new IllegalArgumentException(String.format("The vertex must be part of the graph. Specified : %s", vertex));
+
+        List<Vertex> res = members == null ? null : members.get(vertex);
+        return res == null ? List.of(vertex) : Collections.unmodifiableList(res);
     }
 
     /**
@@ -428,6 +635,22 @@ public class Graph
 
         //add the new vertex to the map
         adjMap.put(newVertex, newList);
+
+        //the members of the smaller vertex are appended to the ones of the bigger, so each member is only moved O(log n) times
+        if (members == null)
+            return;
+        List<Vertex> members1 = members.containsKey(v1) ? members.remove(v1) : new ArrayList<>(List.of(v1));
+        List<Vertex> members2 = members.containsKey(v2) ? members.remove(v2) : new ArrayList<>(List.of(v2));
+        if (members1.size() < members2.size())
+        {
+            members2.addAll(members1);
+            members.put(newVertex, members2);
+        }
+        else
+        {
+            members1.addAll(members2);
+            members.put(newVertex, members1);
+        }
     }
 
 
@@ -448,6 +671,14 @@ public class Graph
         {
             adjMap.put(entry.getKey(), new ArrayList<>(entry.getValue()));
         }
+        if (g.members != null)
+        {
+            members = new HashMap<>();
+            for (Map.Entry<Vertex, List<Vertex>> entry : g.members.entrySet())
+            {
+                members.put(entry.getKey(), new ArrayList<>(entry.getValue()));
+            }
+        }
         computeNumEdges();
     }
 
@@ -456,5 +687,15 @@ public class Graph
      */
     public Graph(){}
 
+    /**
+     * Constructor used by the builders, the map is used as is without being copied
+     * @param adjMap the adjacency map of the graph
+     */
+    Graph(HashMap<Vertex, List<Vertex>> adjMap)
+    {
+        this.adjMap = adjMap;
+        computeNumEdges();
+    }
+
 
 }
\ No newline at end of file
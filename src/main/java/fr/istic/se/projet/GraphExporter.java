@@ -0,0 +1,279 @@
+package fr.istic.se.projet;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class writing graphs and cuts to a channel, as an edge list, in the DOT format, or as the parts of a cut.
+ * Unlike Graph.toString, nothing is built in memory: the text is written vertex by vertex through a buffer of BUFFER_SIZE chars,
+ * so the memory used does not depend on the size of the graph.
+ * A supernode created by Graph.mergeVertices is written as its first member, and its members are listed once,
+ * instead of the nested label built by the merges, whose length grows with the number of members.
+ * The members are only known if Graph.recordMembers was called before the merges, otherwise a supernode is written with its label.
+ * The channels are flushed but not closed, they belong to the caller.
+ */
+public class GraphExporter
+{
+    //number of chars buffered before being written to the channel
+    static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Hide the constructor
+     */
+    private GraphExporter()
+    {}
+
+    /**
+     * Write the edges of the graph, one edge "v1 -- v2" per line, each undirected edge once, in the format read by Graph.read.
+     * Each supernode is first described by a line "# v : m1 m2 ...", v being the name given to the supernode in the edges
+     * and m1 m2 ... its members. These lines are ignored by Graph.read, which gives back the contracted graph.
+     * As Graph.read splits the lines on the whitespaces, a graph with an empty label or a label holding a whitespace is refused
+     * before anything is written.
+     * @param graph the graph to write
+     * @param channel the channel to write to
+     * @throws IllegalArgumentException if the graph or the channel is null, or a label is empty or holds a whitespace
+     * @throws IOException if the channel can not be written
+     */
+    public static void writeEdgeList(Graph graph, WritableByteChannel channel) throws IOException
+    {
+        checkArguments(graph, channel);
+        for (Graph.Vertex vertex : graph.getVerticesSet())
+        {
+            for (Graph.Vertex member : graph.getMembers(vertex))
+            {
+                String label = member.getLabel();
+                if (label.isEmpty() || label.chars().anyMatch(Character::isWhitespace))
+                    throw new IllegalArgumentException(String.format("The label \"%s\" can not be read back from an edge list", label));
+            }
+        }
+
+        Writer out = newWriter(channel);
+        for (Graph.Vertex vertex : graph.getVerticesSet())
+        {
+            List<Graph.Vertex> members = graph.getMembers(vertex);
+            if (members.size() > 1)
+            {
+                out.write("# ");
+                out.write(name(graph, vertex));
+                out.write(" :");
+                for (Graph.Vertex member : members)
+                {
+                    out.write(' ');
+                    out.write(member.getLabel());
+                }
+                out.write('\n');
+            }
+        }
+
+        writeEdges(graph, out, false);
+        out.flush();
+    }
+
+    /**
+     * Write the graph in the DOT format of Graphviz, as an undirected graph with each undirected edge once.
+     * Every vertex is declared, so the vertices without any edge are kept, and each supernode is labelled with its members.
+     * @param graph the graph to write
+     * @param channel the channel to write to
+     * @throws IllegalArgumentException if the graph or the channel is null
+     * @throws IOException if the channel can not be written
+     */
+    public static void writeDot(Graph graph, WritableByteChannel channel) throws IOException
+    {
+        checkArguments(graph, channel);
+        Writer out = newWriter(channel);
+        out.write("graph G {\n");
+        for (Graph.Vertex vertex : graph.getVerticesSet())
+        {
+            out.write("  ");
+            out.write(Quoting.dot(name(graph, vertex)));
+            List<Graph.Vertex> members = graph.getMembers(vertex);
+            if (members.size() > 1)
+            {
+                out.write(" [label=\"");
+                for (int i = 0; i < members.size(); i++)
+                {
+                    if (i > 0)
+                        out.write(", ");
+                    out.write(Quoting.escapeDot(members.get(i).getLabel()));
+                }
+                out.write("\"]");
+            }
+            out.write(";\n");
+        }
+
+        writeEdges(graph, out, true);
+        out.write("}\n");
+        out.flush();
+    }
+
+    /**
+     * Write a cut of the graph: a line "value v", then a line "side i : m1 m2 ..." for each of its two sides.
+     * The supernodes of the sides are replaced by their members, so the sides list the vertices of the original graph.
+     * @param graph the graph which is cut, whose supernodes are expanded
+     * @param cut the cut to write
+     * @param channel the channel to write to
+     * @throws IllegalArgumentException if the graph, the cut or the channel is null, or a vertex of the cut is not in the graph
+     * @throws IOException if the channel can not be written
+     */
+    public static void writeCut(Graph graph, Cut cut, WritableByteChannel channel) throws IOException
+    {
+        checkArguments(graph, channel);
+        if (cut == null)
+            throw new IllegalArgumentException("The cut must not be null");
+
+        checkParts(graph, List.of(cut.getFirstSide(), cut.getSecondSide()));
+
+        Writer out = newWriter(channel);
+        out.write("value " + cut.getValue() + "\n");
+        writePart(graph, out, "side 1", cut.getFirstSide());
+        writePart(graph, out, "side 2", cut.getSecondSide());
+        out.flush();
+    }
+
+    /**
+     * Write a k-way cut of the graph: a line "weight w", then a line "part i : m1 m2 ..." for each of its parts.
+     * The supernodes of the parts are replaced by their members, so the parts list the vertices of the original graph.
+     * @param graph the graph which is cut, whose supernodes are expanded
+     * @param cut the k-way cut to write
+     * @param channel the channel to write to
+     * @throws IllegalArgumentException if the graph, the cut or the channel is null, or a vertex of the cut is not in the graph
+     * @throws IOException if the channel can not be written
+     */
+    public static void writeKCut(Graph graph, KCut cut, WritableByteChannel channel) throws IOException
+    {
+        checkArguments(graph, channel);
+        if (cut == null)
+            throw new IllegalArgumentException("The cut must not be null");
+
+        checkParts(graph, cut.getParts());
+
+        Writer out = newWriter(channel);
+        out.write("weight " + cut.getWeight() + "\n");
+        for (int i = 0; i < cut.getParts().size(); i++)
+            writePart(graph, out, "part " + (i + 1), cut.getParts().get(i));
+        out.flush();
+    }
+
+    /**
+     * Write each undirected edge of the graph once, one per line.
+     * The edge between v1 and v2 is written from the vertex with the smallest label, once for every time v2 is in the list of v1,
+     * and a loop, which is twice in the list of its vertex, is written every other time.
+     * @param graph the graph to write
+     * @param out the writer
+     * @param dot if set to true, the names are quoted and the lines indented and ended by a semicolon, as in the DOT format
+     * @throws IOException if the writer fails
+     */
+    private static void writeEdges(Graph graph, Writer out, boolean dot) throws IOException
+    {
+        for (Graph.Vertex vertex : graph.getVerticesSet())
+        {
+            String source = name(graph, vertex);
+            //true after the first of the two occurrences of a loop
+            boolean halfLoop = false;
+            for (Graph.Vertex neighbour : graph.connectedVertices(vertex))
+            {
+                int order = vertex.getLabel().compareTo(neighbour.getLabel());
+                if (order == 0)
+                {
+                    halfLoop = !halfLoop;
+                    if (!halfLoop)
+                        continue;
+                }
+                else if (order > 0)
+                    continue;
+
+                String target = name(graph, neighbour);
+                if (dot)
+                    out.write("  ");
+                out.write(dot ? Quoting.dot(source) : source);
+                out.write(" -- ");
+                out.write(dot ? Quoting.dot(target) : target);
+                out.write(dot ? ";\n" : "\n");
+            }
+        }
+    }
+
+    /**
+     * Write a line with the members of the vertices of a part of a cut
+     * @param graph the graph which is cut
+     * @param out the writer
+     * @param title the name of the part, at the start of the line
+     * @param part the vertices of the part
+     * @throws IOException if the writer fails
+     */
+    private static void writePart(Graph graph, Writer out, String title, Set<Graph.Vertex> part) throws IOException
+    {
+        out.write(title);
+        out.write(" :");
+        for (Graph.Vertex vertex : part)
+        {
+            for (Graph.Vertex member : graph.getMembers(vertex))
+            {
+                out.write(' ');
+                out.write(member.getLabel());
+            }
+        }
+        out.write('\n');
+    }
+
+    /**
+     * Return the name under which a vertex is written: its first member, which is its label if it is not a supernode
+     * @param graph the graph of the vertex
+     * @param vertex the vertex
+     * @return the name of the vertex
+     */
+    private static String name(Graph graph, Graph.Vertex vertex)
+    {
+        return graph.getMembers(vertex).get(0).getLabel();
+    }
+
+    /**
+     * Create a buffered writer encoding the text in UTF-8 to the channel
+     * @param channel the channel to write to
+     * @return the writer, which must be flushed and not closed
+     */
+    private static Writer newWriter(WritableByteChannel channel)
+    {
+        return new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * Check that every vertex of the parts of a cut is in the graph, before anything is written
+     * @param graph the graph which is cut
+     * @param parts the parts of the cut
+     * @throws IllegalArgumentException if a vertex is not in the graph
+     */
+    private static void checkParts(Graph graph, Collection<Set<Graph.Vertex>> parts)
+    {
+        for (Set<Graph.Vertex> part : parts)
+        {
+            for (Graph.Vertex vertex : part)
+            {
+                if (!graph.contains(vertex))
+                    throw new IllegalArgumentException(String.format("The vertex %s of the cut is not in the graph", vertex.getLabel()));
+            }
+        }
+    }
+
+    /**
+     * Check the arguments common to all the exporters
+     * @param graph the graph to write
+     * @param channel the channel to write to
+     * @throws IllegalArgumentException if the graph or the channel is null
+     */
+    private static void checkArguments(Graph graph, WritableByteChannel channel)
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        if (channel == null)
+            throw new IllegalArgumentException("The channel must not be null");
+    }
+}
@@ -0,0 +1,156 @@
+package fr.istic.se.projet;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Immutable flat view of a graph, used by the algorithms which need to walk every edge quickly.
+ * The vertices are numbered from 0 to getNumVertices() - 1 and each non-directed edge is stored once,
+ * as two int arrays holding its endpoints.
+ * Parallel edges are kept, loops are dropped as they can never be part of a cut.
+ */
+public class IndexedGraph implements EdgeList
+{
+    private final Graph.Vertex[] vertices;
+    private final int[] sources;
+    private final int[] targets;
+
+    /**
+     * Build the flat view of the given graph.
+     * The graph is not modified, and later modifications of the graph are not reflected in this view.
+     * @param graph the graph to index
+     * @throws IllegalArgumentException if the graph is null
+     */
+    public IndexedGraph(Graph graph)
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        vertices = graph.getVerticesSet().toArray(new Graph.Vertex[0]);
+        HashMap<Graph.Vertex, Integer> indexes = new HashMap<>();
+        for (int i = 0; i < vertices.length; i++)
+            indexes.put(vertices[i], i);
+
+        //every edge is present in the lists of both of its vertices, keep it only from the lowest index
+        int[] src = new int[graph.getNumEdges() / 2];
+        int[] dst = new int[src.length];
+        int numEdges = 0;
+        for (int i = 0; i < vertices.length; i++)
+        {
+            for (Graph.Vertex neighbour : graph.connectedVertices(vertices[i]))
+            {
+                int j = indexes.get(neighbour);
+                if (i < j)
+                {
+                    src[numEdges] = i;
+                    dst[numEdges] = j;
+                    numEdges++;
+                }
+            }
+        }
+        sources = Arrays.copyOf(src, numEdges);
+        targets = Arrays.copyOf(dst, numEdges);
+    }
+
+    /**
+     * Build a flat graph directly from its edge arrays.
+     * The edge e goes from sources[e] to targets[e], both being indexes in the vertices array.
+     * The arrays are used as is, they must not be modified afterwards.
+     * @param vertices the vertices of the graph
+     * @param sources the first endpoint of each edge
+     * @param targets the second endpoint of each edge
+     * @throws IllegalArgumentException if an array is null, the edge arrays do not have the same length or an endpoint is not a valid index
+     */
+    public IndexedGraph(Graph.Vertex[] vertices, int[] sources, int[] targets)
+    {
+        if (vertices == null || sources == null || targets == null)
+            throw new IllegalArgumentException("The arrays must not be null");
+
+        if (sources.length != targets.length)
+            throw new IllegalArgumentException("There must be as many sources as targets");
+
+        for (int e = 0; e < sources.length; e++)
+        {
+            if (sources[e] < 0 || sources[e] >= vertices.length || targets[e] < 0 || targets[e] >= vertices.length)
+                throw new IllegalArgumentException(String.format("The edge %d has an invalid endpoint (%d -- %d)", e, sources[e], targets[e]));
+        }
+
+        this.vertices = vertices;
+        this.sources = sources;
+        this.targets = targets;
+    }
+
+    /**
+     * Return the number of vertices in the graph
+     * @return the number of vertices
+     */
+    @Override
+    public int getNumVertices()
+    {
+        return vertices.length;
+    }
+
+    /**
+     * Return the number of non-directed edges in the graph.
+     * Unlike Graph.getNumEdges(), each edge is only counted once.
+     * @return the number of edges
+     */
+    @Override
+    public int getNumEdges()
+    {
+        return sources.length;
+    }
+
+    /**
+     * Return the vertex with the given index
+     * @param index the index of the vertex
+     * @return the vertex
+     */
+    @Override
+    public Graph.Vertex getVertex(int index)
+    {
+        return vertices[index];
+    }
+
+    /**
+     * Return the index of the first endpoint of the given edge
+     * @param edge the index of the edge
+     * @return the index of its first vertex
+     */
+    @Override
+    public int getSource(int edge)
+    {
+        return sources[edge];
+    }
+
+    /**
+     * Return the index of the second endpoint of the given edge
+     * @param edge the index of the edge
+     * @return the index of its second vertex
+     */
+    @Override
+    public int getTarget(int edge)
+    {
+        return targets[edge];
+    }
+
+    /**
+     * Return the array of the first endpoints of the edges, without copying it.
+     * It is used by the kernels which loop over all the edges, and must not be modified.
+     * @return the first endpoint of each edge
+     */
+    int[] getSources()
+    {
+        return sources;
+    }
+
+    /**
+     * Return the array of the second endpoints of the edges, without copying it.
+     * It is used by the kernels which loop over all the edges, and must not be modified.
+     * @return the second endpoint of each edge
+     */
+    int[] getTargets()
+    {
+        return targets;
+    }
+}
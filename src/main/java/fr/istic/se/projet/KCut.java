@@ -0,0 +1,81 @@
+package fr.istic.se.projet;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class holding the result of Karger.minKCut: a partition of the vertices of a graph in k parts
+ * and the number of edges between different parts.
+ */
+public class KCut
+{
+    private final int weight;
+    private final List<Set<Graph.Vertex>> parts;
+
+    /**
+     * Create a new k-way cut
+     * @param weight the number of edges between different parts
+     * @param parts the parts of the partition
+     */
+    KCut(int weight, List<Set<Graph.Vertex>> parts)
+    {
+        this.weight = weight;
+        this.parts = Collections.unmodifiableList(parts);
+    }
+
+    /**
+     * Create the k-way cut grouping the vertices by label
+     * @param graph the graph which is cut
+     * @param labels a label for each vertex, from 0 to k - 1
+     * @param k the number of parts
+     * @param weight the number of edges between different parts
+     * @return the corresponding cut
+     */
+    static KCut fromLabels(EdgeList graph, int[] labels, int k, int weight)
+    {
+        List<Set<Graph.Vertex>> parts = new ArrayList<>(k);
+        for (int i = 0; i < k; i++)
+            parts.add(new HashSet<>());
+        for (int v = 0; v < labels.length; v++)
+            parts.get(labels[v]).add(graph.getVertex(v));
+
+        List<Set<Graph.Vertex>> res = new ArrayList<>(k);
+        for (Set<Graph.Vertex> part : parts)
+            res.add(Collections.unmodifiableSet(part));
+        return new KCut(weight, res);
+    }
+
+    /**
+     * Getter for the weight attribute
+     * @return the number of edges between different parts
+     */
+    public int getWeight()
+    {
+        return weight;
+    }
+
+    /**
+     * Getter for the parts attribute
+     * @return the parts of the partition, none of them empty
+     */
+    public List<Set<Graph.Vertex>> getParts()
+    {
+        return parts;
+    }
+
+    /**
+     * Return a string describing the cut, its weight then its parts
+     * @return the text description of the cut
+     */
+    @Override
+    public String toString()
+    {
+        StringBuilder res = new StringBuilder().append(weight).append(" :");
+        for (int i = 0; i < parts.size(); i++)
+            res.append(i == 0 ? " " : " | ").append(parts.get(i));
+        return res.toString();
+    }
+}
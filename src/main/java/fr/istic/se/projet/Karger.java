@@ -1,14 +1,28 @@
 package fr.istic.se.projet;
 
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
+import java.util.stream.IntStream;
 
 public class Karger
 {
+    //number of edges from which a single trial is worth contracting in parallel
+    static final int PARALLEL_CONTRACTION_THRESHOLD = 1 << 20;
+
+    //part of the free heap the concurrent trials of the multithreading mode can use by default
+    static final double MEMORY_BUDGET_FRACTION = 0.5;
+
     private static final Random random = new Random();
 
     /**
@@ -31,12 +45,32 @@ public class Karger
     /**
      * Method minCut with a multithreading parameter, find the mincut of the given graph
      * If the multithreading parameter is true, find the mincut in the multithreading mode, else do it in a sequential mode
+     * If the graph is disconnected or has a bridge, the mincut (0 or 1) is returned without running the algorithm
      * @param graph the graph in which to find the mincut
      * @param multithreading if set to true, the search is in multithreading mode, else it is in sequential mode
      * @throws IllegalArgumentException if the graph is null or does not contain at least two vertices
-     * @return the mincut of the graph
+     * @return the mincut of the graph, or -1 if the calling thread is interrupted in the multithreading mode before any trial ends
      */
     public static int minCut(Graph graph, int numberOfIteration, boolean multithreading)
+    {
+        return minCut(graph, numberOfIteration, multithreading, getMemoryBudget());
+    }
+
+    /**
+     * Method minCut with a multithreading parameter and a memory budget, find the mincut of the given graph.
+     * See minCut(Graph, int, boolean). In the multithreading mode, each thread works on its own copy of the graph,
+     * so the number of threads running at the same time is capped by maxConcurrentTrials(Graph, long),
+     * the next threads waiting for the first ones to end instead of running the JVM out of memory.
+     * On graphs with at least PARALLEL_CONTRACTION_THRESHOLD edges, the multithreading mode rather runs the trials
+     * like minCutPartition(Graph, int), on a single indexed copy of the graph.
+     * @param graph the graph in which to find the mincut
+     * @param multithreading if set to true, the search is in multithreading mode, else it is in sequential mode
+     * @param memoryBudget the memory the concurrent trials can use, in bytes
+     * @throws IllegalArgumentException if the graph is null or does not contain at least two vertices, or the budget is negative
+     * @return the mincut of the graph, or -1 if the calling thread is interrupted in the multithreading mode before any trial ends,
+     * its interrupted status being kept
+     */
+    public static int minCut(Graph graph, int numberOfIteration, boolean multithreading, long memoryBudget)
     {
         if (graph == null)
             throw new IllegalArgumentException("The graph must not be null");
@@ -46,13 +80,341 @@ public class Karger
             throw new IllegalArgumentException("the graph must contain at least to vertices in order to find the mincut");
         }
 
+        if (memoryBudget < 0)
+            throw new IllegalArgumentException("The memory budget must not be negative");
+
+        //no need to contract anything if the graph is disconnected or has a bridge
+        Cut trivialCut = Connectivity.trivialCut(graph);
+        if (trivialCut != null)
+            return trivialCut.getValue();
+
+        //a graph this big is indexed once and its trials contracted in parallel, instead of being copied for each trial
+        if (multithreading && graph.getNumEdges() >= PARALLEL_CONTRACTION_THRESHOLD)
+            return bestTrial(new IndexedGraph(graph), numberOfIteration, true).getValue();
+
         if (multithreading)
-            return computeMultithreading(graph, numberOfIteration);
+            return computeMultithreading(graph, numberOfIteration, maxConcurrentTrials(graph, memoryBudget));
 
         return compute(graph, numberOfIteration);
 
     }
 
+    /**
+     * Return the memory the concurrent trials can use by default: MEMORY_BUDGET_FRACTION of the heap which is not used yet
+     * @return the default memory budget, in bytes
+     */
+    public static long getMemoryBudget()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        return (long) ((runtime.maxMemory() - used) * MEMORY_BUDGET_FRACTION);
+    }
+
+    /**
+     * Return the number of trials of the multithreading mode which can run at the same time on the given graph within the given budget,
+     * each one needing Graph.estimateTrialWorkingSet() bytes. At least one trial is always allowed.
+     * @param graph the graph in which to find the mincut
+     * @param memoryBudget the memory the concurrent trials can use, in bytes
+     * @throws IllegalArgumentException if the graph is null or the budget is negative
+     * @return the maximum number of concurrent trials
+     */
+    public static int maxConcurrentTrials(Graph graph, long memoryBudget)
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        if (memoryBudget < 0)
+            throw new IllegalArgumentException("The memory budget must not be negative");
+
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, memoryBudget / graph.estimateTrialWorkingSet()));
+    }
+
+    /**
+     * Find the mincut of the given graph and the partition giving it.
+     * The trials run in parallel on the common fork/join pool, and on graphs with at least PARALLEL_CONTRACTION_THRESHOLD edges
+     * each trial is itself contracted in parallel, so a few trials on a huge graph still use all the cores.
+     * The idle threads steal work from both levels, so the trials overlap when a single one does not saturate the pool.
+     * If the graph is disconnected or has a bridge, the corresponding cut is returned without running the algorithm.
+     * @param graph the graph in which to find the mincut
+     * @param numberOfIteration the number of times the algorithm must iterate
+     * @throws IllegalArgumentException if the graph is null or does not contain at least two vertices, or the number of iterations is lower than 1
+     * @return the smallest cut found
+     */
+    public static Cut minCutPartition(Graph graph, int numberOfIteration)
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        if (graph.getNumVertices() < 2)
+            throw new IllegalArgumentException("the graph must contain at least to vertices in order to find the mincut");
+
+        if (numberOfIteration < 1)
+            throw new IllegalArgumentException("There must be at least one iteration");
+
+        return indexedMinCutPartition(new IndexedGraph(graph), numberOfIteration);
+    }
+
+    /**
+     * Find the mincut of a graph which is already indexed, like minCutPartition(Graph, int), without checking the arguments.
+     * It lets the callers keeping an indexed graph across calls skip the indexing.
+     * @param indexedGraph the indexed graph in which to find the mincut, with at least two vertices
+     * @param numberOfIteration the number of times the algorithm must iterate, at least 1
+     * @return the smallest cut found
+     */
+    static Cut indexedMinCutPartition(IndexedGraph indexedGraph, int numberOfIteration)
+    {
+        Cut trivialCut = Connectivity.trivialCut(indexedGraph);
+        if (trivialCut != null)
+            return trivialCut;
+
+        return bestTrial(indexedGraph, numberOfIteration, indexedGraph.getNumEdges() >= PARALLEL_CONTRACTION_THRESHOLD);
+    }
+
+    /**
+     * Find the mincut of a graph given as a list of edges, like an OffHeapGraph, and the partition giving it.
+     * Every trial is contracted with Contraction.contractParallel, which only needs memory for the vertices,
+     * so the edges are only read where they are stored and the heap usage does not depend on their number.
+     * If the graph is disconnected, the cut of value 0 is returned without running the algorithm.
+     * The bridges are not searched for, as it would need a copy of the adjacency in the heap.
+     * @param graph the graph in which to find the mincut
+     * @param numberOfIteration the number of times the algorithm must iterate
+     * @throws IllegalArgumentException if the graph is null or does not contain at least two vertices, or the number of iterations is lower than 1
+     * @return the smallest cut found
+     */
+    public static Cut minCutPartition(EdgeList graph, int numberOfIteration)
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        if (graph.getNumVertices() < 2)
+            throw new IllegalArgumentException("the graph must contain at least to vertices in order to find the mincut");
+
+        if (numberOfIteration < 1)
+            throw new IllegalArgumentException("There must be at least one iteration");
+
+        int[] components = Connectivity.components(graph);
+        if (Arrays.stream(components).anyMatch(label -> label != components[0]))
+            return Cut.fromLabels(graph, components, 0);
+
+        return bestTrial(graph, numberOfIteration, true);
+    }
+
+    /**
+     * Find all the distinct mincuts reached by the trials, with the number of trials which found each of them.
+     * A graph has at most n(n-1)/2 mincuts and each trial finds a given one with a probability of at least 2/(n(n-1)),
+     * so with enough trials all of them are found, the most likely ones being found the most often.
+     * The trials run in parallel on the common fork/join pool, and the partitions are deduplicated whatever the side they start from,
+     * so the map holds each weak point of the graph once.
+     * If the graph is disconnected, only the cut of value 0 around the component of one vertex is returned.
+     * If the graph has bridges, the cut of each bridge is returned. In both cases no trial is run and the hits are 0.
+     * @param graph the graph in which to find the mincuts
+     * @param numberOfIteration the number of times the algorithm must iterate
+     * @throws IllegalArgumentException if the graph is null or does not contain at least two vertices, or the number of iterations is lower than 1
+     * @return the distinct cuts of minimum value found, with their number of hits, the most found first
+     */
+    public static Map<Cut, Long> allMinCuts(Graph graph, int numberOfIteration)
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        if (graph.getNumVertices() < 2)
+            throw new IllegalArgumentException("the graph must contain at least to vertices in order to find the mincut");
+
+        if (numberOfIteration < 1)
+            throw new IllegalArgumentException("There must be at least one iteration");
+
+        IndexedGraph indexedGraph = new IndexedGraph(graph);
+        Map<Cut, Long> res = new LinkedHashMap<>();
+        if (!Connectivity.isConnected(indexedGraph))
+        {
+            res.put(Connectivity.trivialCut(indexedGraph), 0L);
+            return res;
+        }
+
+        List<Integer> bridges = Connectivity.bridges(indexedGraph);
+        if (!bridges.isEmpty())
+        {
+            for (int bridge : bridges)
+                res.put(Connectivity.bridgeCut(indexedGraph, bridge), 0L);
+            return res;
+        }
+
+        boolean parallelContraction = indexedGraph.getNumEdges() >= PARALLEL_CONTRACTION_THRESHOLD;
+        long seed = random.nextLong();
+        MinCutCollector collector = new MinCutCollector(indexedGraph);
+        IntStream.range(0, numberOfIteration).parallel()
+                .forEach(i -> collector.offer(Contraction.trial(indexedGraph, 2, Contraction.trialSeed(seed, i), parallelContraction, () -> false)));
+        return collector.getMinCuts();
+    }
+
+    /**
+     * Estimate the mincut of a graph too big for the exact search, within a relative error of epsilon.
+     * The trials run on a skeleton of the graph, where each edge is kept with a probability p, and the mincut found is divided by p.
+     * As the mincut is at most the average degree 2m/n, p starts at c * ln(n) / (epsilon^2 * 2m/n), and is doubled
+     * until the mincut of the skeleton reaches c * ln(n) / epsilon^2, which is when the sampling theorem guarantees
+     * that all the cuts are kept within epsilon, see SkeletonSampling.
+     * Only the sampled edges are read, so the time depends on the size of the skeleton and not on the number of edges,
+     * as long as the edges of the graph can be read at random, as in an IndexedGraph or an OffHeapGraph.
+     * If p reaches 1, the skeleton is the graph itself and the result is exact, with an epsilon of 0.
+     * @param graph the graph in which to estimate the mincut
+     * @param epsilon the relative error allowed, in (0, 1)
+     * @param numberOfIteration the number of trials run on each skeleton
+     * @throws IllegalArgumentException if the graph is null or does not contain at least two vertices, epsilon is not in (0, 1) or the number of iterations is lower than 1
+     * @return the estimate, with the partition giving it, its relative error and its confidence
+     */
+    public static ApproximateCut approximateMinCut(EdgeList graph, double epsilon, int numberOfIteration)
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        if (graph.getNumVertices() < 2)
+            throw new IllegalArgumentException("the graph must contain at least to vertices in order to find the mincut");
+
+        if (!(epsilon > 0 && epsilon < 1))
+            throw new IllegalArgumentException("epsilon must be between 0 and 1");
+
+        if (numberOfIteration < 1)
+            throw new IllegalArgumentException("There must be at least one iteration");
+
+        int n = graph.getNumVertices();
+        double target = SkeletonSampling.targetValue(n, epsilon);
+        double upperBound = 2.0 * graph.getNumEdges() / n;
+        double probability = upperBound > target ? target / upperBound : 1;
+        //probability that the trials miss a given mincut of the skeleton
+        double trialsFailure = Math.pow(1 - 2.0 / ((double) n * (n - 1)), numberOfIteration);
+
+        while (true)
+        {
+            IndexedGraph skeleton = SkeletonSampling.sample(graph, probability, random.nextLong());
+            boolean exact = probability >= 1;
+            int[] components = Connectivity.components(skeleton);
+            Cut cut;
+            if (Arrays.stream(components).anyMatch(label -> label != components[0]))
+                cut = Cut.fromLabels(skeleton, components, 0);
+            else if (exact || skeleton.getNumEdges() >= target)
+                cut = bestTrial(skeleton, numberOfIteration, skeleton.getNumEdges() >= PARALLEL_CONTRACTION_THRESHOLD);
+            else
+                cut = null;
+
+            if (exact)
+                return new ApproximateCut(cut, cut.getValue(), 0, 1 - trialsFailure, 1, skeleton.getNumEdges());
+
+            if (cut != null && cut.getValue() >= target)
+            {
+                double estimate = cut.getValue() / probability;
+                Cut scaled = new Cut((int) Math.round(estimate), cut.getFirstSide(), cut.getSecondSide());
+                double confidence = (1 - Math.pow(n, -SkeletonSampling.FAILURE_EXPONENT)) * (1 - trialsFailure);
+                return new ApproximateCut(scaled, estimate, epsilon, confidence, probability, skeleton.getNumEdges());
+            }
+
+            Logger.getGlobal().fine(String.format("The skeleton sampled with p = %f is too sparse, doubling p", probability));
+            probability = Math.min(1, 2 * probability);
+        }
+    }
+
+    /**
+     * Find a minimum k-way cut of the graph: a partition of its vertices in k non empty parts with as few edges as possible between different parts.
+     * Each iteration is a recursive contraction of Karger and Stein, see RecursiveContraction, which finds a given minimum k-way cut
+     * with a much higher probability than a single contraction down to k vertices, so far fewer iterations are needed.
+     * An iteration costs O(n^2 log n) edge reads whatever k, and finds a given minimum k-way cut with a probability
+     * in O(1 / log n) for k = 2 and around n^-(2(k - 2)) for a bigger k, see RecursiveContraction.
+     * The iterations, and the two branches of every level of their recursion, run in parallel on the common fork/join pool.
+     * If the graph has at least k connected components, they are grouped in k parts with no edge between them, without running the algorithm.
+     * @param graph the graph to cut
+     * @param k the number of parts
+     * @param numberOfIteration the number of times the algorithm must iterate
+     * @throws IllegalArgumentException if the graph is null, k is lower than 2 or greater than the number of vertices, or the number of iterations is lower than 1
+     * @return the smallest k-way cut found
+     */
+    public static KCut minKCut(Graph graph, int k, int numberOfIteration)
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        if (k < 2)
+            throw new IllegalArgumentException("There must be at least two parts");
+
+        if (k > graph.getNumVertices())
+            throw new IllegalArgumentException("There must not be more parts than vertices");
+
+        if (numberOfIteration < 1)
+            throw new IllegalArgumentException("There must be at least one iteration");
+
+        IndexedGraph indexedGraph = new IndexedGraph(graph);
+        int[] components = RecursiveContraction.compact(Connectivity.components(indexedGraph));
+        if (Arrays.stream(components).max().orElseThrow() >= k - 1)
+        {
+            //one component in each of the first k - 1 parts, all the others in the last one
+            int[] labels = Arrays.stream(components).map(component -> Math.min(component, k - 1)).toArray();
+            return KCut.fromLabels(indexedGraph, labels, k, 0);
+        }
+
+        long seed = random.nextLong();
+        Contraction.Result best = IntStream.range(0, numberOfIteration).parallel()
+                .mapToObj(i -> RecursiveContraction.trial(indexedGraph, k, Contraction.trialSeed(seed, i)))
+                .min(Comparator.comparingInt(Contraction.Result::getValue))
+                .orElseThrow();
+
+        return KCut.fromLabels(indexedGraph, RecursiveContraction.compact(best.getLabels()), k, best.getValue());
+    }
+
+    /**
+     * Run the trials in parallel on the common fork/join pool and return the best cut
+     * @param graph the graph in which to find the mincut
+     * @param numberOfIteration the number of trials
+     * @param parallelContraction if set to true, each trial is also contracted in parallel
+     * @return the smallest cut found
+     */
+    private static Cut bestTrial(EdgeList graph, int numberOfIteration, boolean parallelContraction)
+    {
+        long seed = random.nextLong();
+        Contraction.Result best = IntStream.range(0, numberOfIteration).parallel()
+                .mapToObj(i -> Contraction.trial(graph, 2, Contraction.trialSeed(seed, i), parallelContraction, () -> false))
+                .min(Comparator.comparingInt(Contraction.Result::getValue))
+                .orElseThrow();
+
+        return Cut.fromLabels(graph, best.getLabels(), best.getValue());
+    }
+
+    /**
+     * Find the mincut of the given graph in the background, within the given time.
+     * The trials run on the common fork/join pool. The returned future completes with the best cut found
+     * when all the trials are done or when the timeout expires, whichever comes first.
+     * Each time a better cut is found, it is given to the subscriber, so a good enough cut can be used before the end.
+     * Cancelling the future stops all the trials, even in the middle of a contraction.
+     * A timeout too long to be counted in nanoseconds is the same as no timeout.
+     * @param graph the graph in which to find the mincut
+     * @param numberOfIteration the maximum number of times the algorithm must iterate
+     * @param timeout the time after which the best cut found so far is returned
+     * @param subscriber called with each new best cut, from the thread which found it, can be null, its exceptions are logged and ignored
+     * @throws IllegalArgumentException if the graph is null or does not contain at least two vertices, the number of iterations is lower than 1 or the timeout is null or negative
+     * @return the future completed with the best cut found, or with a TimeoutException if no trial ended before the deadline
+     */
+    public static CompletableFuture<Cut> minCutAsync(Graph graph, int numberOfIteration, Duration timeout, Consumer<Cut> subscriber)
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        if (graph.getNumVertices() < 2)
+            throw new IllegalArgumentException("the graph must contain at least to vertices in order to find the mincut");
+
+        if (numberOfIteration < 1)
+            throw new IllegalArgumentException("There must be at least one iteration");
+
+        if (timeout == null || timeout.isNegative())
+            throw new IllegalArgumentException("The timeout must not be null or negative");
+
+        IndexedGraph indexedGraph = new IndexedGraph(graph);
+        Cut trivialCut = Connectivity.trivialCut(indexedGraph);
+        if (trivialCut != null)
+        {
+            AnytimeMinCut.publish(subscriber, trivialCut);
+            return CompletableFuture.completedFuture(trivialCut);
+        }
+
+        return new AnytimeMinCut(indexedGraph, numberOfIteration, random.nextLong(), subscriber).start(timeout);
+    }
+
     /**
      * Find the mincut of the given graph in the sequential mode
      * @param graph the graph in which to find the mincut
@@ -92,39 +454,50 @@ public class Karger
     /**
      * Find the mincut of the given graph in the multithreading mode
      * launch numberOfThreads threads to find the mincut, then takes the lowest of the returned results
+     * As every thread works on its own copy of the graph, at most maxConcurrentThreads threads run at the same time,
+     * a new thread being started when the oldest one ends.
+     * If the calling thread is interrupted, all the threads are stopped and the lowest result among the finished ones is returned (-1 if none),
+     * the interrupted status of the calling thread being set again.
      * @param graph the graph in which to find the mincut
      * @param numberOfThreads the number of threads which should find the mincut
+     * @param maxConcurrentThreads the maximum number of threads running at the same time
      * @return the mincut
      */
-    private static int computeMultithreading(Graph graph, int numberOfThreads)
+    private static int computeMultithreading(Graph graph, int numberOfThreads, int maxConcurrentThreads)
     {
         List<Integer> results = Collections.synchronizedList(new ArrayList<>(numberOfThreads));
+        //the threads which are stopped before their end keep this value
         for (int i=0 ; i<numberOfThreads ; i++)
-            results.add(0);
+            results.add(Integer.MAX_VALUE);
 
         List<KargerThread> threads = Collections.synchronizedList(new ArrayList<>(numberOfThreads));
-        for (int i=0 ; i<numberOfThreads ; i++)
+        try
         {
-            KargerThread thread = new KargerThread(graph, i, results);
-            threads.add(i, thread);
-            thread.start();
-        }
-
-            for (int i = 0; i < numberOfThreads; i++)
+            for (int i=0 ; i<numberOfThreads ; i++)
             {
-                try
-                {
-                    threads.get(i).join();
-                }
-                catch (InterruptedException e)
-                {
-                    Logger.getGlobal().severe(e.getMessage());
-                    threads.get(i).interrupt();
+                //once the budget is reached, wait for the oldest thread to free its copy of the graph
+                if (i >= maxConcurrentThreads)
+                    threads.get(i - maxConcurrentThreads).join();
 
-                }
+                KargerThread thread = new KargerThread(graph, i, results);
+                threads.add(i, thread);
+                thread.start();
             }
 
-        return Collections.min(results);
+            for (KargerThread thread : threads)
+                thread.join();
+        }
+        catch (InterruptedException e)
+        {
+            //stop all the threads, and keep the interruption visible to the caller
+            Logger.getGlobal().warning("Interrupted, the best mincut found so far is returned");
+            for (KargerThread thread : threads)
+                thread.interrupt();
+            Thread.currentThread().interrupt();
+        }
+
+        int result = Collections.min(results);
+        return result == Integer.MAX_VALUE ? -1 : result;
     }
 
 
@@ -156,6 +529,7 @@ public class Karger
          * method run launched when thread.start() is called
          * implements the karger algorithm
          * put its result inside the result array attribute at its given position
+         * If the thread is interrupted, it stops and does not put any result
          */
         @Override
         public void run()
@@ -164,6 +538,9 @@ public class Karger
             Graph workGraph = new Graph(graph);
             while (workGraph.getNumVertices() > 2)
             {
+                if (isInterrupted())
+                    return;
+
                 Graph.Vertex source = (Graph.Vertex) workGraph.getVerticesSet().toArray()[random.nextInt(workGraph.getNumVertices())];
                 Graph.Vertex destination = workGraph.connectedVertices(source).get(random.nextInt(workGraph.connectedVertices(source).size()));
 
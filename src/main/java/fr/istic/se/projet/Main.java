@@ -1,13 +1,33 @@
 package fr.istic.se.projet;
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.util.logging.Level;
 
 import static java.util.logging.Logger.getGlobal;
 
 public class Main
 {
-    public static void main(String[] args)
+    //port of the server mode when none is given
+    private static final int DEFAULT_PORT = 8080;
+
+    /**
+     * Run the demo, or the mincut server with the option --server [--bind address] [port] [name=file ...],
+     * the graphs of the given files being loaded with the given names before the server starts.
+     * The server only listens to the loopback address, unless another one is given with --bind, 0.0.0.0 for all the interfaces.
+     * @param args the arguments of the command line
+     * @throws IOException if the server can not start or a graph file can not be read
+     */
+    public static void main(String[] args) throws IOException
     {
+        if (args.length > 0 && args[0].equals("--server"))
+        {
+            startServer(args);
+            return;
+        }
+
         //Create a graph and add edges
         Graph graph = new Graph();
         graph.addEdges(new String[]{"1 -- 2", "2 -- 3", "3 -- 4", "4 -- 1"});
@@ -17,4 +37,41 @@ public class Main
         getGlobal().log(Level.INFO, "sequential mincut found : {0}", Karger.minCut(graph, 50));
         getGlobal().log(Level.INFO, "multithreading mincut found : {0}", Karger.minCut(graph, 50, true));
     }
+
+    /**
+     * Start the mincut server, with one job per processor and a queue of 4 jobs per processor
+     * @param args the arguments of the command line, starting with --server
+     * @throws IOException if the server can not start or a graph file can not be read
+     */
+    private static void startServer(String[] args) throws IOException
+    {
+        //the server has no authentication, so it is only reachable from this machine unless asked otherwise
+        InetAddress address = InetAddress.getLoopbackAddress();
+        int first = 1;
+        if (args.length > 2 && args[1].equals("--bind"))
+        {
+            address = InetAddress.getByName(args[2]);
+            first = 3;
+        }
+        else if (args.length > 1 && args[1].equals("--bind"))
+            throw new IllegalArgumentException("Expected an address after --bind");
+
+        int port = DEFAULT_PORT;
+        if (args.length > first && !args[first].contains("="))
+        {
+            port = Integer.parseInt(args[first]);
+            first++;
+        }
+
+        int processors = Runtime.getRuntime().availableProcessors();
+        MinCutServer server = new MinCutServer(new InetSocketAddress(address, port), processors, 4 * processors);
+        for (int i = first; i < args.length; i++)
+        {
+            String[] graph = args[i].split("=", 2);
+            if (graph.length != 2)
+                throw new IllegalArgumentException(String.format("Expected name=file, got %s", args[i]));
+            server.putGraph(graph[0], Graph.read(Path.of(graph[1])));
+        }
+        server.start();
+    }
 }
@@ -0,0 +1,115 @@
+package fr.istic.se.projet;
+
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class collecting the distinct cuts of minimum value found by the trials, and how many times each one was found.
+ * The trials can offer their result from several threads at the same time.
+ * A partition is identified by the bitset of the vertices which are not on the side of the vertex 0,
+ * so the same partition found with other labels or with its sides swapped is counted once.
+ * The cuts above the minimum found so far are dropped as soon as a lower one is found.
+ */
+class MinCutCollector
+{
+    /**
+     * Number of hits of a partition, with the value of its cut
+     */
+    private static class Hits
+    {
+        private final int value;
+        private final LongAdder count = new LongAdder();
+
+        /**
+         * Create a new counter, with no hit
+         * @param value the value of the cut of the partition
+         */
+        Hits(int value)
+        {
+            this.value = value;
+        }
+    }
+
+    private final EdgeList graph;
+    private final ConcurrentHashMap<BitSet, Hits> partitions = new ConcurrentHashMap<>();
+    private final AtomicInteger minValue = new AtomicInteger(Integer.MAX_VALUE);
+
+    /**
+     * Create a new collector
+     * @param graph the graph whose cuts are collected
+     */
+    MinCutCollector(EdgeList graph)
+    {
+        this.graph = graph;
+    }
+
+    /**
+     * Count the result of a trial, if its value is not above the lowest one found so far
+     * @param result the result of the trial
+     */
+    void offer(Contraction.Result result)
+    {
+        int value = result.getValue();
+        int min = minValue.get();
+        while (value < min && !minValue.compareAndSet(min, value))
+            min = minValue.get();
+
+        if (value > minValue.get())
+            return;
+
+        if (value < min)
+            partitions.values().removeIf(hits -> hits.value > value);
+
+        partitions.computeIfAbsent(canonicalSide(result.getLabels()), side -> new Hits(value)).count.increment();
+    }
+
+    /**
+     * Return the distinct cuts of minimum value collected, with the number of times they were found.
+     * Must be called once all the trials are done.
+     * @return the cuts and their number of hits, the most found first
+     */
+    Map<Cut, Long> getMinCuts()
+    {
+        int min = minValue.get();
+        Map<Cut, Long> res = new LinkedHashMap<>();
+        partitions.entrySet().stream()
+                .filter(entry -> entry.getValue().value == min)
+                .sorted(Comparator.comparingLong((Map.Entry<BitSet, Hits> entry) -> entry.getValue().count.sum()).reversed())
+                .forEachOrdered(entry -> res.put(toCut(entry.getKey(), min), entry.getValue().count.sum()));
+        return res;
+    }
+
+    /**
+     * Return the canonical form of a partition: the bitset of the vertices whose label is not the one of the vertex 0
+     * @param labels the label of each vertex
+     * @return the canonical bitset of the partition
+     */
+    private static BitSet canonicalSide(int[] labels)
+    {
+        BitSet res = new BitSet(labels.length);
+        for (int i = 0; i < labels.length; i++)
+        {
+            if (labels[i] != labels[0])
+                res.set(i);
+        }
+        return res;
+    }
+
+    /**
+     * Create the cut of a canonical partition
+     * @param side the vertices which are not on the side of the vertex 0
+     * @param value the value of the cut
+     * @return the cut
+     */
+    private Cut toCut(BitSet side, int value)
+    {
+        int[] labels = new int[graph.getNumVertices()];
+        side.stream().forEach(i -> labels[i] = 1);
+        return Cut.fromLabels(graph, labels, value);
+    }
+}
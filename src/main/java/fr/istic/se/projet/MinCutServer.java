@@ -0,0 +1,405 @@
+package fr.istic.se.projet;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Long running HTTP server keeping named graphs in memory, so the mincut requests do not pay for the start of a JVM,
+ * the parsing of the graph and the warm-up of the code every time.
+ * The graphs are kept with their indexed view, which is only rebuilt after an update.
+ * The mincut requests are run by a pool with a bounded queue: when the pool and its queue are full,
+ * the request is refused right away with the status 503 instead of piling up. The trials themselves run on the
+ * common fork/join pool, which stays warm between the requests.
+ * The API, where the bodies hold one edge "v1 -- v2" per line:
+ * <ul>
+ *     <li>PUT /graphs/{name}: create or replace the graph with the edges of the body</li>
+ *     <li>GET /graphs/{name}: number of vertices and edges of the graph</li>
+ *     <li>DELETE /graphs/{name}: forget the graph</li>
+ *     <li>POST /graphs/{name}/edges: add the edges of the body to the graph</li>
+ *     <li>DELETE /graphs/{name}/edges: remove the edges of the body from the graph</li>
+ *     <li>GET /graphs/{name}/mincut?iterations=n: mincut of the graph and the partition giving it</li>
+ * </ul>
+ * The answers are JSON objects.
+ * There is no authentication and the requests can replace or delete the graphs, so the server should only listen
+ * to the loopback address, which is what Main does unless another address is explicitly given.
+ */
+public class MinCutServer
+{
+    //number of iterations of a mincut request which does not give it
+    static final int DEFAULT_ITERATIONS = 100;
+    //number of threads reading the requests, the mincuts are run by the pool of jobs
+    private static final int CONNECTION_THREADS = 2;
+
+    /**
+     * Graph kept by the server, with its indexed view built on demand
+     */
+    private static class NamedGraph
+    {
+        private final Graph graph;
+        private IndexedGraph indexedGraph = null;
+
+        /**
+         * Create a new named graph
+         * @param graph the graph
+         */
+        NamedGraph(Graph graph)
+        {
+            this.graph = graph;
+        }
+
+        /**
+         * Return the indexed view of the graph, built again if the graph was updated since the last call
+         * @return the indexed view of the graph
+         */
+        synchronized IndexedGraph indexed()
+        {
+            if (indexedGraph == null)
+                indexedGraph = new IndexedGraph(graph);
+            return indexedGraph;
+        }
+
+        /**
+         * Add the given edges to the graph
+         * @param edges the edges, one per line
+         * @return the number of edges added
+         */
+        synchronized int addEdges(String[] edges)
+        {
+            indexedGraph = null;
+            return graph.addEdges(edges);
+        }
+
+        /**
+         * Remove the given edges from the graph
+         * @param edges the edges, one per line
+         * @return the number of edges removed
+         */
+        synchronized int removeEdges(String[] edges)
+        {
+            indexedGraph = null;
+            return graph.removeEdges(edges);
+        }
+
+        /**
+         * Return the description of the graph as a JSON object
+         * @return the number of vertices and edges of the graph
+         */
+        synchronized String summary()
+        {
+            return String.format("{\"vertices\":%d,\"edges\":%d}", graph.getNumVertices(), graph.getNumEdges() / 2);
+        }
+    }
+
+    private final HttpServer server;
+    private final ExecutorService connections;
+    private final ThreadPoolExecutor jobs;
+    private final ConcurrentHashMap<String, NamedGraph> graphs = new ConcurrentHashMap<>();
+
+    /**
+     * Create a new server, which does not accept any request until it is started
+     * @param address the address to listen to, its port can be 0 to pick a free one
+     * @param maxConcurrentJobs the number of mincut requests run at the same time
+     * @param queueCapacity the number of mincut requests waiting for a free thread, the next ones are refused
+     * @throws IllegalArgumentException if the address is null, the number of jobs is lower than 1 or the capacity is negative
+     * @throws IOException if the server can not listen to the address
+     */
+    public MinCutServer(InetSocketAddress address, int maxConcurrentJobs, int queueCapacity) throws IOException
+    {
+        if (address == null)
+            throw new IllegalArgumentException("The address must not be null");
+
+        if (maxConcurrentJobs < 1)
+            throw new IllegalArgumentException("There must be at least one concurrent job");
+
+        if (queueCapacity < 0)
+            throw new IllegalArgumentException("The capacity of the queue must not be negative");
+
+        //a queue of capacity 0 is a hand-off, refusing the jobs as soon as all the threads are busy
+        jobs = new ThreadPoolExecutor(maxConcurrentJobs, maxConcurrentJobs, 0, TimeUnit.MILLISECONDS,
+                queueCapacity == 0 ? new SynchronousQueue<>() : new ArrayBlockingQueue<>(queueCapacity));
+        connections = Executors.newFixedThreadPool(CONNECTION_THREADS);
+        server = HttpServer.create(address, 0);
+        server.setExecutor(connections);
+        server.createContext("/graphs/", this::handle);
+    }
+
+    /**
+     * Start accepting the requests
+     */
+    public void start()
+    {
+        server.start();
+        Logger.getGlobal().info(String.format("The mincut server listens on port %d", getPort()));
+    }
+
+    /**
+     * Stop the server, the requests being run are given the given time to end
+     * @param delaySeconds the time given to the requests being run
+     */
+    public void stop(int delaySeconds)
+    {
+        server.stop(delaySeconds);
+        jobs.shutdownNow();
+        connections.shutdownNow();
+    }
+
+    /**
+     * Return the port the server listens to
+     * @return the port
+     */
+    public int getPort()
+    {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Load a graph in the server, replacing the one with the same name if any
+     * @param name the name of the graph
+     * @param graph the graph, which must not be used elsewhere afterwards
+     * @throws IllegalArgumentException if the name is null or blank, or the graph is null
+     */
+    public void putGraph(String name, Graph graph)
+    {
+        if (name == null || name.isBlank())
+            throw new IllegalArgumentException("The name must not be null or blank");
+
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        graphs.put(name, new NamedGraph(graph));
+    }
+
+    /**
+     * Return the number of mincut requests waiting for a free thread
+     * @return the number of waiting requests
+     */
+    public int getQueuedJobs()
+    {
+        return jobs.getQueue().size();
+    }
+
+    /**
+     * Route a request to the right action
+     * @param exchange the request and its answer
+     */
+    private void handle(HttpExchange exchange)
+    {
+        try
+        {
+            String[] path = exchange.getRequestURI().getPath().substring("/graphs/".length()).split("/");
+            String method = exchange.getRequestMethod();
+            String name = path[0];
+            NamedGraph graph = graphs.get(name);
+
+            if (name.isBlank() || path.length > 2)
+                send(exchange, 404, error("Unknown resource"));
+            else if (path.length == 1 && method.equals("PUT"))
+            {
+                Graph newGraph = new Graph();
+                newGraph.addEdges(readLines(exchange.getRequestBody()));
+                NamedGraph named = new NamedGraph(newGraph);
+                graphs.put(name, named);
+                send(exchange, 201, named.summary());
+            }
+            else if (graph == null)
+                send(exchange, 404, error(String.format("The graph %s does not exist", name)));
+            else if (path.length == 1 && method.equals("GET"))
+                send(exchange, 200, graph.summary());
+            else if (path.length == 1 && method.equals("DELETE"))
+            {
+                graphs.remove(name);
+                send(exchange, 200, graph.summary());
+            }
+            else if (path.length == 2 && path[1].equals("edges") && method.equals("POST"))
+                send(exchange, 200, String.format("{\"added\":%d}", graph.addEdges(readLines(exchange.getRequestBody()))));
+            else if (path.length == 2 && path[1].equals("edges") && method.equals("DELETE"))
+                send(exchange, 200, String.format("{\"removed\":%d}", graph.removeEdges(readLines(exchange.getRequestBody()))));
+            else if (path.length == 2 && path[1].equals("mincut") && method.equals("GET"))
+                submitMinCut(exchange, graph);
+            else
+                send(exchange, 405, error("Unsupported method"));
+        }
+        catch (IOException e)
+        {
+            Logger.getGlobal().log(Level.WARNING, "Could not answer a request", e);
+            exchange.close();
+        }
+        catch (RuntimeException e)
+        {
+            sendInternalError(exchange, e);
+        }
+    }
+
+    /**
+     * Give a mincut request to the pool of jobs, or refuse it if the pool and its queue are full.
+     * The answer is sent by the thread of the job.
+     * @param exchange the request and its answer
+     * @param graph the graph in which to find the mincut
+     * @throws IOException if the answer can not be sent
+     */
+    private void submitMinCut(HttpExchange exchange, NamedGraph graph) throws IOException
+    {
+        int iterations = DEFAULT_ITERATIONS;
+        String query = exchange.getRequestURI().getQuery();
+        if (query != null)
+        {
+            for (String parameter : query.split("&"))
+            {
+                if (parameter.startsWith("iterations="))
+                {
+                    try
+                    {
+                        iterations = Integer.parseInt(parameter.substring("iterations=".length()));
+                    }
+                    catch (NumberFormatException e)
+                    {
+                        iterations = 0;
+                    }
+                }
+            }
+        }
+        if (iterations < 1)
+        {
+            send(exchange, 400, error("The number of iterations must be a positive integer"));
+            return;
+        }
+
+        int numberOfIteration = iterations;
+        try
+        {
+            jobs.execute(() -> runMinCut(exchange, graph, numberOfIteration));
+        }
+        catch (RejectedExecutionException e)
+        {
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            send(exchange, 503, error("Too many mincut requests, try again later"));
+        }
+    }
+
+    /**
+     * Find the mincut of the graph and send it
+     * @param exchange the request and its answer
+     * @param graph the graph in which to find the mincut
+     * @param numberOfIteration the number of times the algorithm must iterate
+     */
+    private static void runMinCut(HttpExchange exchange, NamedGraph graph, int numberOfIteration)
+    {
+        try
+        {
+            IndexedGraph indexedGraph = graph.indexed();
+            if (indexedGraph.getNumVertices() < 2)
+            {
+                send(exchange, 400, error("the graph must contain at least to vertices in order to find the mincut"));
+                return;
+            }
+
+            Cut cut = Karger.indexedMinCutPartition(indexedGraph, numberOfIteration);
+            send(exchange, 200, String.format("{\"value\":%d,\"firstSide\":%s,\"secondSide\":%s}",
+                    cut.getValue(), toJson(cut.getFirstSide()), toJson(cut.getSecondSide())));
+        }
+        catch (IOException e)
+        {
+            Logger.getGlobal().log(Level.WARNING, "Could not answer a mincut request", e);
+            exchange.close();
+        }
+        catch (RuntimeException e)
+        {
+            sendInternalError(exchange, e);
+        }
+    }
+
+    /**
+     * Answer a request which failed with an unexpected exception with a 500, so the client is not left waiting
+     * @param exchange the request and its answer
+     * @param e the exception
+     */
+    private static void sendInternalError(HttpExchange exchange, RuntimeException e)
+    {
+        Logger.getGlobal().log(Level.SEVERE, "A request failed", e);
+        try
+        {
+            send(exchange, 500, error("Internal error"));
+        }
+        catch (IOException | RuntimeException sendError)
+        {
+            //the headers may already be sent, the connection is closed instead
+            exchange.close();
+        }
+    }
+
+    /**
+     * Send an answer and close the exchange
+     * @param exchange the request and its answer
+     * @param status the HTTP status
+     * @param json the body of the answer
+     * @throws IOException if the answer can not be sent
+     */
+    private static void send(HttpExchange exchange, int status, String json) throws IOException
+    {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody())
+        {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Read the lines of a request body
+     * @param body the body
+     * @return its lines
+     * @throws IOException if the body can not be read
+     */
+    private static String[] readLines(InputStream body) throws IOException
+    {
+        try (body)
+        {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8).split("\\R");
+        }
+    }
+
+    /**
+     * Return an error message as a JSON object
+     * @param message the message
+     * @return the JSON object
+     */
+    private static String error(String message)
+    {
+        return "{\"error\":" + Quoting.json(message) + "}";
+    }
+
+    /**
+     * Return the labels of the given vertices as a JSON array
+     * @param vertices the vertices
+     * @return the JSON array
+     */
+    private static String toJson(Collection<Graph.Vertex> vertices)
+    {
+        StringBuilder res = new StringBuilder("[");
+        for (Graph.Vertex vertex : vertices)
+        {
+            if (res.length() > 1)
+                res.append(',');
+            res.append(Quoting.json(vertex.getLabel()));
+        }
+        return res.append(']').toString();
+    }
+}
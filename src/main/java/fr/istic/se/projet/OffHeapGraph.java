@@ -0,0 +1,423 @@
+package fr.istic.se.projet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * Graph whose edges are stored outside of the heap, either in direct memory or in a memory mapped file.
+ * The edge e is stored as the two ints source, target at the position 2 * e, so the heap usage does not depend on the number of edges,
+ * the garbage collector never has to scan them, and a mapped file can be bigger than the memory as the system pages it in and out.
+ * The vertex i has the label "i", unless the graph is a copy of a graph with other labels: they are then kept in the heap,
+ * and written after the edges in a graph file.
+ * The storage is split in buffers of 2^27 edges (1 GiB), as a single buffer can not hold more than 2 GiB.
+ * All the numbers are little endian, in the files as in direct memory, so a graph is stored the same way on every machine.
+ * The contraction trials read the edges directly from the buffers, see Karger.minCutPartition(EdgeList, int).
+ * Closing the graph frees its direct memory or unmaps its file right away, instead of waiting for the garbage collector,
+ * so it must only be closed once no trial reads it any more: a trial still running would read freed memory.
+ */
+public class OffHeapGraph implements EdgeList, AutoCloseable
+{
+    //"KGRF", at the start of every graph file
+    private static final int MAGIC = 0x4B475246;
+    private static final int VERSION = 2;
+    private static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+    //magic, version, number of vertices, number of edges
+    private static final int HEADER_SIZE = 4 * Integer.BYTES;
+    private static final int CHUNK_SHIFT = 27;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+    private static final long EDGE_BYTES = 2L * Integer.BYTES;
+    //frees a direct or mapped buffer right away, or does nothing if the JVM does not allow it
+    private static final Consumer<ByteBuffer> CLEANER = findCleaner();
+
+    private final int numVertices;
+    private final int numEdges;
+    private final ByteBuffer[] buffers;
+    private final IntBuffer[] chunks;
+    //the label of each vertex, or null if the vertex i has the label "i"
+    private final String[] labels;
+
+    /**
+     * Private constructor, the graphs are created by the static methods
+     * @param numVertices the number of vertices
+     * @param numEdges the number of edges
+     * @param buffers the buffers holding the edges, each one holding 2^CHUNK_SHIFT edges except the last one
+     * @param labels the label of each vertex, or null if the vertex i has the label "i"
+     */
+    private OffHeapGraph(int numVertices, int numEdges, ByteBuffer[] buffers, String[] labels)
+    {
+        this.numVertices = numVertices;
+        this.numEdges = numEdges;
+        this.buffers = buffers;
+        this.labels = labels;
+        chunks = new IntBuffer[buffers.length];
+        for (int i = 0; i < buffers.length; i++)
+            chunks[i] = buffers[i].asIntBuffer();
+    }
+
+    /**
+     * Create a graph in direct memory, with all its edges between the vertex 0 and itself until they are set with setEdge
+     * @param numVertices the number of vertices
+     * @param numEdges the number of edges
+     * @return the new graph
+     * @throws IllegalArgumentException if a number is negative
+     */
+    public static OffHeapGraph allocate(int numVertices, int numEdges)
+    {
+        checkSizes(numVertices, numEdges);
+
+        ByteBuffer[] buffers = new ByteBuffer[numChunks(numEdges)];
+        for (int i = 0; i < buffers.length; i++)
+            buffers[i] = ByteBuffer.allocateDirect((int) chunkBytes(numEdges, i)).order(ORDER);
+        return new OffHeapGraph(numVertices, numEdges, buffers, null);
+    }
+
+    /**
+     * Create a graph file and map it in memory, with all its edges between the vertex 0 and itself until they are set with setEdge.
+     * If the file already exists, it is overwritten. The edges set are written to the file by the system, or by flush().
+     * @param file the path of the file
+     * @param numVertices the number of vertices
+     * @param numEdges the number of edges
+     * @return the new graph
+     * @throws IllegalArgumentException if the path is null or a number is negative
+     * @throws IOException if the file can not be created or mapped
+     */
+    public static OffHeapGraph create(Path file, int numVertices, int numEdges) throws IOException
+    {
+        if (file == null)
+            throw new IllegalArgumentException("The path must not be null");
+
+        checkSizes(numVertices, numEdges);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+            header.putInt(MAGIC).putInt(VERSION).putInt(numVertices).putInt(numEdges).flip();
+            channel.write(header, 0);
+            return mapEdges(channel, FileChannel.MapMode.READ_WRITE, numVertices, numEdges, null);
+        }
+    }
+
+    /**
+     * Map an existing graph file, created by create(Path, int, int) or copyOf(EdgeList, Path), in read only mode.
+     * The size of the file is checked against its number of edges, and every endpoint against its number of vertices,
+     * so a truncated or corrupted file is refused here instead of failing later in the trials.
+     * @param file the path of the file
+     * @return the graph of the file
+     * @throws IllegalArgumentException if the path is null
+     * @throws IOException if the file can not be read, is not a graph file, or is truncated or corrupted
+     */
+    public static OffHeapGraph map(Path file) throws IOException
+    {
+        if (file == null)
+            throw new IllegalArgumentException("The path must not be null");
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ))
+        {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+            while (header.hasRemaining())
+            {
+                if (channel.read(header, header.position()) < 0)
+                    throw new IOException(String.format("The file %s is too short to be a graph file", file));
+            }
+            header.flip();
+
+            if (header.getInt() != MAGIC || header.getInt() != VERSION)
+                throw new IOException(String.format("The file %s is not a graph file", file));
+
+            int numVertices = header.getInt();
+            int numEdges = header.getInt();
+            long labelsPosition = HEADER_SIZE + numEdges * EDGE_BYTES;
+            if (numVertices < 0 || numEdges < 0 || channel.size() < labelsPosition)
+                throw new IOException(String.format("The file %s is truncated or corrupted", file));
+
+            String[] labels = null;
+            if (channel.size() > labelsPosition)
+            {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel.position(labelsPosition))));
+                if (in.readInt() != numVertices)
+                    throw new IOException(String.format("The labels of the file %s are corrupted", file));
+
+                labels = new String[numVertices];
+                for (int i = 0; i < numVertices; i++)
+                    labels[i] = in.readUTF();
+            }
+            OffHeapGraph graph = mapEdges(channel, FileChannel.MapMode.READ_ONLY, numVertices, numEdges, labels);
+            int[] invalidEdge = {-1};
+            graph.forEachEdge(0, numEdges, (e, source, target) -> {
+                if (invalidEdge[0] == -1 && (source < 0 || source >= numVertices || target < 0 || target >= numVertices))
+                    invalidEdge[0] = e;
+            });
+            if (invalidEdge[0] != -1)
+            {
+                graph.close();
+                throw new IOException(String.format("The edge %d of the file %s has an endpoint out of the %d vertices", invalidEdge[0], file, numVertices));
+            }
+            return graph;
+        }
+    }
+
+    /**
+     * Copy the given graph in direct memory, with the labels of its vertices
+     * @param graph the graph to copy
+     * @return the copy
+     * @throws IllegalArgumentException if the graph is null
+     */
+    public static OffHeapGraph copyOf(EdgeList graph)
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        OffHeapGraph edges = allocate(graph.getNumVertices(), graph.getNumEdges());
+        Connectivity.forEachEdge(graph, edges::setEdge);
+        return new OffHeapGraph(edges.numVertices, edges.numEdges, edges.buffers, labels(graph));
+    }
+
+    /**
+     * Copy the given graph in a graph file, which can then be mapped by other processes with map(Path).
+     * The labels of the vertices, if they are not their indexes, are written after the edges.
+     * @param graph the graph to copy
+     * @param file the path of the file, overwritten if it already exists
+     * @return the copy, mapped in read and write mode
+     * @throws IllegalArgumentException if the graph or the path is null
+     * @throws IOException if the file can not be created or mapped
+     */
+    public static OffHeapGraph copyOf(EdgeList graph, Path file) throws IOException
+    {
+        if (graph == null)
+            throw new IllegalArgumentException("The graph must not be null");
+
+        OffHeapGraph edges = create(file, graph.getNumVertices(), graph.getNumEdges());
+        Connectivity.forEachEdge(graph, edges::setEdge);
+        edges.flush();
+
+        String[] labels = labels(graph);
+        if (labels != null)
+        {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE))
+            {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel.position(HEADER_SIZE + edges.numEdges * EDGE_BYTES))));
+                out.writeInt(labels.length);
+                for (String label : labels)
+                    out.writeUTF(label);
+                out.flush();
+            }
+        }
+        return new OffHeapGraph(edges.numVertices, edges.numEdges, edges.buffers, labels);
+    }
+
+    /**
+     * Set the endpoints of the given edge.
+     * Different edges can be set by different threads at the same time.
+     * @param edge the index of the edge
+     * @param source the index of its first vertex
+     * @param target the index of its second vertex
+     * @throws IllegalArgumentException if the edge or a vertex is not a valid index
+     * @throws java.nio.ReadOnlyBufferException if the graph was mapped in read only mode
+     */
+    public void setEdge(int edge, int source, int target)
+    {
+        if (edge < 0 || edge >= numEdges)
+            throw new IllegalArgumentException(String.format("The edge %d is not part of the graph", edge));
+
+        if (source < 0 || source >= numVertices || target < 0 || target >= numVertices)
+            throw new IllegalArgumentException(String.format("The edge %d has an invalid endpoint (%d -- %d)", edge, source, target));
+
+        IntBuffer chunk = chunks[edge >>> CHUNK_SHIFT];
+        int position = 2 * (edge & CHUNK_MASK);
+        chunk.put(position, source);
+        chunk.put(position + 1, target);
+    }
+
+    /**
+     * Write the modified edges to the file, if the graph is a mapped file. Nothing is done for a graph in direct memory.
+     */
+    public void flush()
+    {
+        for (ByteBuffer buffer : buffers)
+        {
+            if (buffer instanceof MappedByteBuffer && !buffer.isReadOnly())
+                ((MappedByteBuffer) buffer).force();
+        }
+    }
+
+    /**
+     * Write the modified edges to the file, then free the direct memory or unmap the file without waiting for the garbage collector.
+     * Reading an edge afterwards throws an IndexOutOfBoundsException. The graph must not be used by another thread while it is closed,
+     * in particular by a trial which is still running, nor shared with a copy which is still used, as the memory of the edges would be freed under it.
+     * Closing a closed graph does nothing.
+     */
+    @Override
+    public void close()
+    {
+        flush();
+        for (int i = 0; i < buffers.length; i++)
+        {
+            if (buffers[i] == null)
+                continue;
+
+            ByteBuffer buffer = buffers[i];
+            buffers[i] = null;
+            chunks[i] = IntBuffer.allocate(0);
+            CLEANER.accept(buffer);
+        }
+    }
+
+    @Override
+    public int getNumVertices()
+    {
+        return numVertices;
+    }
+
+    @Override
+    public int getNumEdges()
+    {
+        return numEdges;
+    }
+
+    /**
+     * Return the vertex with the given index, created on demand with its label, which is the index if the graph has no labels
+     * @param index the index of the vertex
+     * @return the vertex
+     */
+    @Override
+    public Graph.Vertex getVertex(int index)
+    {
+        return new Graph.Vertex(labels == null ? Integer.toString(index) : labels[index]);
+    }
+
+    @Override
+    public int getSource(int edge)
+    {
+        return chunks[edge >>> CHUNK_SHIFT].get(2 * (edge & CHUNK_MASK));
+    }
+
+    @Override
+    public int getTarget(int edge)
+    {
+        return chunks[edge >>> CHUNK_SHIFT].get(2 * (edge & CHUNK_MASK) + 1);
+    }
+
+    /**
+     * Map the edges of a graph file, chunk by chunk
+     * @param channel the channel of the file
+     * @param mode the mode of the mapping
+     * @param numVertices the number of vertices
+     * @param numEdges the number of edges
+     * @param labels the label of each vertex, or null if the vertex i has the label "i"
+     * @return the graph
+     * @throws IOException if the file can not be mapped
+     */
+    private static OffHeapGraph mapEdges(FileChannel channel, FileChannel.MapMode mode, int numVertices, int numEdges, String[] labels) throws IOException
+    {
+        ByteBuffer[] buffers = new ByteBuffer[numChunks(numEdges)];
+        long position = HEADER_SIZE;
+        for (int i = 0; i < buffers.length; i++)
+        {
+            long size = chunkBytes(numEdges, i);
+            buffers[i] = channel.map(mode, position, size).order(ORDER);
+            position += size;
+        }
+        return new OffHeapGraph(numVertices, numEdges, buffers, labels);
+    }
+
+    /**
+     * Return the labels of the vertices of the given graph, or null if the vertex i has the label "i"
+     * @param graph the graph
+     * @return the label of each vertex, or null
+     */
+    private static String[] labels(EdgeList graph)
+    {
+        if (graph instanceof OffHeapGraph)
+            return ((OffHeapGraph) graph).labels;
+
+        String[] res = new String[graph.getNumVertices()];
+        boolean indexes = true;
+        for (int i = 0; i < res.length; i++)
+        {
+            res[i] = graph.getVertex(i).getLabel();
+            indexes &= res[i].equals(Integer.toString(i));
+        }
+        return indexes ? null : res;
+    }
+
+    /**
+     * Find sun.misc.Unsafe.invokeCleaner, the only way to free a direct or mapped buffer before it is garbage collected.
+     * If the JVM does not give access to it, the buffers are left to the garbage collector.
+     * @return the function freeing a buffer
+     */
+    private static Consumer<ByteBuffer> findCleaner()
+    {
+        try
+        {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            Object unsafe = field.get(null);
+            Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            return buffer -> {
+                try
+                {
+                    invokeCleaner.invoke(unsafe, buffer);
+                }
+                catch (ReflectiveOperationException e)
+                {
+                    Logger.getGlobal().warning("A buffer of a graph could not be freed: " + e.getMessage());
+                }
+            };
+        }
+        catch (ReflectiveOperationException | RuntimeException e)
+        {
+            Logger.getGlobal().warning("The buffers of the graphs are left to the garbage collector: " + e.getMessage());
+            return buffer -> {};
+        }
+    }
+
+    /**
+     * Return the number of buffers needed to store the given number of edges
+     * @param numEdges the number of edges
+     * @return the number of buffers
+     */
+    private static int numChunks(int numEdges)
+    {
+        return (int) ((numEdges + (long) CHUNK_MASK) >>> CHUNK_SHIFT);
+    }
+
+    /**
+     * Return the size in bytes of the given buffer
+     * @param numEdges the total number of edges
+     * @param chunk the index of the buffer
+     * @return its size in bytes
+     */
+    private static long chunkBytes(int numEdges, int chunk)
+    {
+        long edges = Math.min(1L << CHUNK_SHIFT, numEdges - ((long) chunk << CHUNK_SHIFT));
+        return edges * EDGE_BYTES;
+    }
+
+    /**
+     * Check the sizes of a new graph
+     * @param numVertices the number of vertices
+     * @param numEdges the number of edges
+     * @throws IllegalArgumentException if a number is negative
+     */
+    private static void checkSizes(int numVertices, int numEdges)
+    {
+        if (numVertices < 0 || numEdges < 0)
+            throw new IllegalArgumentException("The number of vertices and edges must not be negative");
+    }
+}
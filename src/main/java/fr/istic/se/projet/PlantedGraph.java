@@ -0,0 +1,261 @@
+package fr.istic.se.projet;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Graph whose mincut is known, as it is planted when the graph is generated: two halves, each one more connected
+ * than the cut, joined by a few links. The vertices 0 to getFirstSideSize() - 1 are the first half.
+ * The generators fill an OffHeapGraph in parallel, every edge being computed from its index or from its row,
+ * so graphs of millions of edges are generated quickly and, in a graph file, without using the heap.
+ * Closing a planted graph closes its OffHeapGraph.
+ */
+public class PlantedGraph implements AutoCloseable
+{
+    /**
+     * Function computing the edges of a row of the graph, so the rows can be generated in parallel
+     */
+    @FunctionalInterface
+    private interface RowGenerator
+    {
+        /**
+         * Set the edges of the given row
+         * @param graph the graph to fill
+         * @param row the index of the row
+         */
+        void generate(OffHeapGraph graph, int row);
+    }
+
+    private final String name;
+    private final OffHeapGraph graph;
+    private final int cutValue;
+    private final int firstSideSize;
+
+    /**
+     * Create a new planted graph
+     * @param name the description of the graph, with its parameters
+     * @param graph the graph
+     * @param cutValue the value of the planted mincut
+     * @param firstSideSize the number of vertices of the first half, which are numbered first
+     */
+    private PlantedGraph(String name, OffHeapGraph graph, int cutValue, int firstSideSize)
+    {
+        this.name = name;
+        this.graph = graph;
+        this.cutValue = cutValue;
+        this.firstSideSize = firstSideSize;
+        //write the edges to the graph file, if any
+        graph.flush();
+    }
+
+    /**
+     * Generate a dumbbell: two cliques of the given size, the vertex i of the first one being linked to the vertex i of the second one
+     * for i lower than the number of links. Every vertex has at least size - 1 edges, so the mincut is the number of links.
+     * @param size the number of vertices of each clique
+     * @param links the number of links between the cliques, lower than size - 1
+     * @param file the graph file to write, or null to generate the graph in direct memory
+     * @throws IllegalArgumentException if size is lower than 3 or the number of links is not in [0, size - 1)
+     * @throws IOException if the graph file can not be created
+     * @return the dumbbell
+     */
+    public static PlantedGraph dumbbell(int size, int links, Path file) throws IOException
+    {
+        if (size < 3)
+            throw new IllegalArgumentException("The cliques must have at least 3 vertices");
+
+        if (links < 0 || links >= size - 1)
+            throw new IllegalArgumentException("The number of links must be between 0 and the size of the cliques minus 2");
+
+        long cliqueEdges = (long) size * (size - 1) / 2;
+        OffHeapGraph graph = newGraph(file, 2L * size, 2 * cliqueEdges + links);
+        //the row i holds the edges from i to the vertices after it in its clique, in both cliques
+        fill(graph, size, (g, i) -> {
+            int first = (int) ((long) i * size - (long) i * (i + 1) / 2);
+            for (int j = i + 1; j < size; j++)
+            {
+                g.setEdge(first + j - i - 1, i, j);
+                g.setEdge((int) cliqueEdges + first + j - i - 1, size + i, size + j);
+            }
+        });
+        for (int i = 0; i < links; i++)
+            graph.setEdge((int) (2 * cliqueEdges) + i, i, size + i);
+
+        return new PlantedGraph(String.format("dumbbell(size=%d,links=%d)", size, links), graph, links, size);
+    }
+
+    /**
+     * Generate two random regular graphs of the given degree joined by links, the vertex i of the first half being linked
+     * to the vertex i of the second one for i lower than the number of links.
+     * Each half is the union of degree / 2 random hamiltonian cycles, and every cycle crosses every cut of its half at least twice,
+     * so every cut inside a half is at least the degree and the mincut is the number of links.
+     * @param size the number of vertices of each half
+     * @param degree the degree of the vertices of each half, an even number
+     * @param links the number of links between the halves, lower than the degree
+     * @param seed the seed of the random cycles
+     * @param file the graph file to write, or null to generate the graph in direct memory
+     * @throws IllegalArgumentException if size is lower than 3, the degree is not a positive even number, or the number of links is not in [0, degree)
+     * @throws IOException if the graph file can not be created
+     * @return the graph
+     */
+    public static PlantedGraph randomRegular(int size, int degree, int links, long seed, Path file) throws IOException
+    {
+        if (size < 3)
+            throw new IllegalArgumentException("The halves must have at least 3 vertices");
+
+        if (degree < 2 || degree % 2 != 0)
+            throw new IllegalArgumentException("The degree must be a positive even number");
+
+        if (links < 0 || links >= degree || links > size)
+            throw new IllegalArgumentException("The number of links must be between 0 and the degree minus 1");
+
+        int cycles = degree / 2;
+        OffHeapGraph graph = newGraph(file, 2L * size, 2L * cycles * size + links);
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int c = 0; c < 2 * cycles; c++)
+        {
+            //the cycles 0 to cycles - 1 are in the first half, the next ones in the second half
+            int offset = c < cycles ? 0 : size;
+            int firstEdge = c * size;
+            int[] order = IntStream.range(0, size).toArray();
+            SplittableRandom cycleRandom = random.split();
+            for (int i = size - 1; i > 0; i--)
+            {
+                int j = cycleRandom.nextInt(i + 1);
+                int tmp = order[i];
+                order[i] = order[j];
+                order[j] = tmp;
+            }
+            fill(graph, size, (g, i) -> g.setEdge(firstEdge + i, offset + order[i], offset + order[(i + 1) % size]));
+        }
+        for (int i = 0; i < links; i++)
+            graph.setEdge(2 * cycles * size + i, i, size + i);
+
+        return new PlantedGraph(String.format("randomRegular(size=%d,degree=%d,links=%d)", size, degree, links), graph, links, size);
+    }
+
+    /**
+     * Generate two toroidal grids of the given size joined by weak links, the vertex i of the first grid being linked
+     * to the vertex i of the second one for i lower than the number of links.
+     * A toroidal grid wraps around its borders, so every vertex has 4 neighbours, and every cut of a grid is at least 4:
+     * the mincut is the number of links.
+     * @param rows the number of rows of each grid
+     * @param columns the number of columns of each grid
+     * @param links the number of weak links between the grids, lower than 4
+     * @param file the graph file to write, or null to generate the graph in direct memory
+     * @throws IllegalArgumentException if a dimension is lower than 3 or the number of links is not in [0, 4)
+     * @throws IOException if the graph file can not be created
+     * @return the graph
+     */
+    public static PlantedGraph gridWithWeakLinks(int rows, int columns, int links, Path file) throws IOException
+    {
+        if (rows < 3 || columns < 3)
+            throw new IllegalArgumentException("The grids must have at least 3 rows and 3 columns");
+
+        if (links < 0 || links >= 4)
+            throw new IllegalArgumentException("The number of weak links must be between 0 and 3");
+
+        int size = rows * columns;
+        OffHeapGraph graph = newGraph(file, 2L * size, 4L * size + links);
+        //the row r of both grids, each vertex having an edge to its right and one below
+        fill(graph, rows, (g, r) -> {
+            for (int offset = 0; offset < 2 * size; offset += size)
+            {
+                for (int c = 0; c < columns; c++)
+                {
+                    int vertex = r * columns + c;
+                    int edge = 2 * (offset + vertex);
+                    g.setEdge(edge, offset + vertex, offset + r * columns + (c + 1) % columns);
+                    g.setEdge(edge + 1, offset + vertex, offset + ((r + 1) % rows) * columns + c);
+                }
+            }
+        });
+        for (int i = 0; i < links; i++)
+            graph.setEdge(4 * size + i, i, size + i);
+
+        return new PlantedGraph(String.format("gridWithWeakLinks(rows=%d,columns=%d,links=%d)", rows, columns, links), graph, links, size);
+    }
+
+    /**
+     * Getter for the name attribute
+     * @return the description of the graph, with its parameters
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Getter for the graph attribute
+     * @return the graph
+     */
+    public OffHeapGraph getGraph()
+    {
+        return graph;
+    }
+
+    /**
+     * Getter for the cutValue attribute
+     * @return the value of the planted mincut
+     */
+    public int getCutValue()
+    {
+        return cutValue;
+    }
+
+    /**
+     * Getter for the firstSideSize attribute
+     * @return the number of vertices of the first half, numbered from 0
+     */
+    public int getFirstSideSize()
+    {
+        return firstSideSize;
+    }
+
+    /**
+     * Free the memory of the graph, or unmap its file, see OffHeapGraph.close()
+     */
+    @Override
+    public void close()
+    {
+        graph.close();
+    }
+
+    /**
+     * Return the labels of the planted partition: 0 for the first half and 1 for the second one
+     * @return the label of each vertex
+     */
+    public int[] plantedLabels()
+    {
+        return IntStream.range(0, graph.getNumVertices()).map(v -> v < firstSideSize ? 0 : 1).toArray();
+    }
+
+    /**
+     * Create the graph to fill
+     * @param file the graph file to write, or null for a graph in direct memory
+     * @param numVertices the number of vertices
+     * @param numEdges the number of edges
+     * @return the graph
+     * @throws IllegalArgumentException if the graph is too big for an OffHeapGraph
+     * @throws IOException if the graph file can not be created
+     */
+    private static OffHeapGraph newGraph(Path file, long numVertices, long numEdges) throws IOException
+    {
+        if (numVertices > Integer.MAX_VALUE || numEdges > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("The graph is too big");
+
+        return file == null ? OffHeapGraph.allocate((int) numVertices, (int) numEdges) : OffHeapGraph.create(file, (int) numVertices, (int) numEdges);
+    }
+
+    /**
+     * Generate the rows of the graph in parallel
+     * @param graph the graph to fill
+     * @param rows the number of rows
+     * @param generator the function setting the edges of a row
+     */
+    private static void fill(OffHeapGraph graph, int rows, RowGenerator generator)
+    {
+        IntStream.range(0, rows).parallel().forEach(row -> generator.generate(graph, row));
+    }
+}
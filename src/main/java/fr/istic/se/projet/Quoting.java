@@ -0,0 +1,66 @@
+package fr.istic.se.projet;
+
+/**
+ * Class quoting the labels written in the text formats of the project: JSON strings for the server and the reports,
+ * and DOT strings for the exporter. Each format has its own escapes, so a label is read back the same way in each of them.
+ */
+class Quoting
+{
+    /**
+     * Hide the constructor
+     */
+    private Quoting()
+    {}
+
+    /**
+     * Return the given text as a JSON string
+     * @param text the text
+     * @return the JSON string, quoted and escaped
+     */
+    static String json(String text)
+    {
+        StringBuilder res = new StringBuilder("\"");
+        for (char c : text.toCharArray())
+        {
+            if (c == '"' || c == '\\')
+                res.append('\\').append(c);
+            else if (c < 0x20)
+                res.append(String.format("\\u%04x", (int) c));
+            else
+                res.append(c);
+        }
+        return res.append('"').toString();
+    }
+
+    /**
+     * Return the given text as a double-quoted DOT string
+     * @param text the text
+     * @return the DOT string, quoted and escaped
+     */
+    static String dot(String text)
+    {
+        return '"' + escapeDot(text) + '"';
+    }
+
+    /**
+     * Escape the given text to be written inside a double-quoted DOT string.
+     * The quotes and the backslashes are escaped by a backslash, as Graphviz reads a backslash as the start of an escape sequence,
+     * and the line breaks are written as \n, the line break of the DOT labels.
+     * @param text the text
+     * @return the escaped text, without the quotes
+     */
+    static String escapeDot(String text)
+    {
+        StringBuilder res = new StringBuilder(text.length());
+        for (char c : text.toCharArray())
+        {
+            if (c == '"' || c == '\\')
+                res.append('\\').append(c);
+            else if (c == '\n')
+                res.append("\\n");
+            else if (c != '\r')
+                res.append(c);
+        }
+        return res.toString();
+    }
+}
@@ -0,0 +1,135 @@
+package fr.istic.se.projet;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+/**
+ * Class implementing one run of the recursive contraction of Karger and Stein, for the minimum k-way cut.
+ * Instead of contracting the whole graph down to k vertices in one go, which is when the mincut is most likely to be lost,
+ * the graph is contracted to n / sqrt(2) vertices, then the contracted graph is solved twice, independently and recursively.
+ * The small graphs at the bottom of the recursion are contracted directly to k vertices.
+ * The two branches of every level run in parallel on the common fork/join pool.
+ * As every level divides the size by sqrt(2) and doubles the branches, a run contracts about (n / BASE_SIZE)^2 small graphs
+ * and costs O(n^2 log n) edge reads on top of its first contraction, whatever k.
+ * For k = 2 a level keeps a given mincut with a probability of at least 1/2, and a run finds it with a probability in O(1 / log n).
+ * For a bigger k, keeping it with a probability of 1/2 would need levels of n / 2^(1 / (2(k - 1))) vertices, and about n^(2(k - 1)) small graphs,
+ * which is already too slow for k = 4 and 100 vertices. The levels keep the size of k = 2 instead: a level keeps a given k-way mincut
+ * with a probability of about 2^-(k - 1), so a run finds it with a probability around n^-(2(k - 2)), still n^2 times more than a direct contraction,
+ * and the number of iterations must grow accordingly.
+ */
+class RecursiveContraction
+{
+    //number of vertices above k from which a graph is contracted recursively rather than directly
+    private static final int BASE_SIZE = 6;
+    //ratio between the sizes of a graph and of its contracted graphs, the one which keeps a mincut with a probability of 1/2
+    private static final double SHRINK_RATIO = Math.sqrt(2);
+
+    /**
+     * Hide the constructor
+     */
+    private RecursiveContraction()
+    {}
+
+    /**
+     * Run the recursive contraction of the given graph down to k vertices
+     * @param graph the graph to contract, with fewer than k connected components
+     * @param k the number of parts of the cut
+     * @param seed the seed of the run
+     * @return the best partition found, with a label for each vertex, and the number of edges between the parts
+     */
+    static Contraction.Result trial(EdgeList graph, int k, long seed)
+    {
+        int n = graph.getNumVertices();
+        if (n <= k + BASE_SIZE)
+        {
+            //the graph is small, it is contracted directly
+            int[] labels = Contraction.contract(graph, k, seed);
+            return new Contraction.Result(CutCounter.count(graph, labels), labels);
+        }
+
+        //the contraction keeps a mincut with a probability of at least 1/2 down to this size, and a k-way mincut with about 2^-(k - 1)
+        int target = (int) Math.ceil(n / SHRINK_RATIO);
+        int size = Math.max(k + 1, Math.min(n - 1, target));
+        return IntStream.range(0, 2).parallel()
+                .mapToObj(branch -> branch(graph, k, size, Contraction.trialSeed(seed, branch)))
+                .min(Comparator.comparingInt(Contraction.Result::getValue))
+                .orElseThrow();
+    }
+
+    /**
+     * Contract the graph to the given size, solve the contracted graph recursively, and give its partition back to the vertices of the graph
+     * @param graph the graph to contract
+     * @param k the number of parts of the cut
+     * @param size the number of vertices of the contracted graph
+     * @param seed the seed of the branch
+     * @return the best partition found in the branch
+     */
+    private static Contraction.Result branch(EdgeList graph, int k, int size, long seed)
+    {
+        int[] supernodes = compact(Contraction.contract(graph, size, Contraction.trialSeed(seed, 0)));
+        IndexedGraph contracted = contractedGraph(graph, supernodes);
+        Contraction.Result result = trial(contracted, k, Contraction.trialSeed(seed, 1));
+
+        int[] labels = new int[graph.getNumVertices()];
+        for (int v = 0; v < labels.length; v++)
+            labels[v] = result.getLabels()[supernodes[v]];
+        return new Contraction.Result(result.getValue(), labels);
+    }
+
+    /**
+     * Build the graph whose vertices are the supernodes of a contraction and whose edges are the edges between different supernodes
+     * @param graph the graph which was contracted
+     * @param supernodes the supernode of each vertex, numbered from 0
+     * @return the contracted graph
+     */
+    static IndexedGraph contractedGraph(EdgeList graph, int[] supernodes)
+    {
+        int numSupernodes = 0;
+        for (int supernode : supernodes)
+            numSupernodes = Math.max(numSupernodes, supernode + 1);
+
+        int[] counts = new int[1];
+        graph.forEachEdge(0, graph.getNumEdges(), (e, source, target) -> {
+            if (supernodes[source] != supernodes[target])
+                counts[0]++;
+        });
+
+        int[] sources = new int[counts[0]];
+        int[] targets = new int[counts[0]];
+        int[] next = new int[1];
+        graph.forEachEdge(0, graph.getNumEdges(), (e, source, target) -> {
+            if (supernodes[source] != supernodes[target])
+            {
+                sources[next[0]] = supernodes[source];
+                targets[next[0]] = supernodes[target];
+                next[0]++;
+            }
+        });
+
+        Graph.Vertex[] vertices = new Graph.Vertex[numSupernodes];
+        for (int i = 0; i < numSupernodes; i++)
+            vertices[i] = new Graph.Vertex(Integer.toString(i));
+        return new IndexedGraph(vertices, sources, targets);
+    }
+
+    /**
+     * Renumber the labels from 0, in the order of their first vertex
+     * @param labels a label for each vertex
+     * @return the new labels, from 0 to the number of distinct labels - 1
+     */
+    static int[] compact(int[] labels)
+    {
+        int[] renumbering = new int[labels.length];
+        Arrays.fill(renumbering, -1);
+        int[] res = new int[labels.length];
+        int next = 0;
+        for (int v = 0; v < labels.length; v++)
+        {
+            if (renumbering[labels[v]] < 0)
+                renumbering[labels[v]] = next++;
+            res[v] = renumbering[labels[v]];
+        }
+        return res;
+    }
+}
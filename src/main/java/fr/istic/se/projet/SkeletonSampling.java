@@ -0,0 +1,91 @@
+package fr.istic.se.projet;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Class building the skeleton of a graph: the graph made of its vertices and of a random sample of its edges,
+ * each edge being kept with the same probability p.
+ * By the sampling theorem of Karger, if p is at least SAMPLING_CONSTANT * ln(n) / (epsilon^2 * mincut),
+ * every cut of the skeleton is within (1 +/- epsilon) of p times its value in the graph, with a probability of at least 1 - 1/n^FAILURE_EXPONENT.
+ * The mincut of the skeleton divided by p is then an estimate of the mincut of the graph.
+ */
+class SkeletonSampling
+{
+    //exponent d of the failure probability 1/n^d of the sampling theorem
+    static final int FAILURE_EXPONENT = 2;
+    //constant c of the sampling theorem, 3(d + 2)
+    static final double SAMPLING_CONSTANT = 3 * (FAILURE_EXPONENT + 2);
+
+    /**
+     * Hide the constructor
+     */
+    private SkeletonSampling()
+    {}
+
+    /**
+     * Return the value the mincut of the skeleton must reach for the sampling theorem to hold
+     * @param numVertices the number of vertices of the graph
+     * @param epsilon the relative error allowed
+     * @return the minimum value of the mincut of the skeleton, c * ln(n) / epsilon^2
+     */
+    static double targetValue(int numVertices, double epsilon)
+    {
+        return SAMPLING_CONSTANT * Math.log(numVertices) / (epsilon * epsilon);
+    }
+
+    /**
+     * Build a skeleton of the graph.
+     * The kept edges are found by drawing the gap to the next one from a geometric distribution,
+     * so only the kept edges are read and the time is proportional to the size of the sample, not to the number of edges.
+     * The kept edges are then read at once by getEdges, in the order of their indexes.
+     * @param graph the graph to sample
+     * @param probability the probability to keep each edge, in (0, 1]
+     * @param seed the seed of the sample
+     * @return the skeleton, with the same vertices at the same indexes
+     */
+    static IndexedGraph sample(EdgeList graph, double probability, long seed)
+    {
+        int n = graph.getNumVertices();
+        int m = graph.getNumEdges();
+        Graph.Vertex[] vertices = new Graph.Vertex[n];
+        for (int v = 0; v < n; v++)
+            vertices[v] = graph.getVertex(v);
+
+        int capacity = (int) Math.min(m, Math.ceil(probability * m * 1.1) + 16);
+        int[] kept = new int[capacity];
+        int size = 0;
+
+        SplittableRandom random = new SplittableRandom(seed);
+        double logComplement = Math.log1p(-probability);
+        long e = nextGap(random, logComplement);
+        while (e < m)
+        {
+            if (size == kept.length)
+                kept = Arrays.copyOf(kept, Math.min(m, 2 * size));
+            kept[size++] = (int) e;
+            e += 1 + nextGap(random, logComplement);
+        }
+
+        int[] sources = new int[size];
+        int[] targets = new int[size];
+        graph.getEdges(kept, 0, size, sources, targets);
+        return new IndexedGraph(vertices, sources, targets);
+    }
+
+    /**
+     * Draw the number of edges skipped before the next kept one, from a geometric distribution
+     * @param random the generator of the sample
+     * @param logComplement ln(1 - p), negative infinity when every edge is kept
+     * @return the number of skipped edges
+     */
+    private static long nextGap(SplittableRandom random, double logComplement)
+    {
+        if (logComplement == Double.NEGATIVE_INFINITY)
+            return 0;
+
+        //1 - nextDouble() is in (0, 1], so its logarithm is finite
+        double gap = Math.floor(Math.log(1 - random.nextDouble()) / logComplement);
+        return gap >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (long) gap;
+    }
+}
@@ -0,0 +1,321 @@
+package fr.istic.se.projet;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Class estimating the mincut of a graph given as a stream of edges, in a single pass and without storing the edges.
+ * The edges are kept in a certificate made of k forests, each held in a union-find: an edge goes in the first forest
+ * where its endpoints are not connected yet, and is dropped if they are connected in all of them.
+ * The certificate has at most k(n - 1) edges, and every cut of value lower than k in the graph has the same value in it,
+ * so its mincut is the mincut of the graph as long as this one is lower than k.
+ * To estimate bigger mincuts, each edge is also sampled in the levels 1, 2, ... with a probability 2^-level,
+ * each level having its own certificate. The mincut of the graph is then about 2^level times the one of the first level
+ * whose certificate is not saturated, with a relative error around sqrt(c ln(n) / k), see SkeletonSampling.
+ * The mincut of each certificate is kept until an edge or a vertex is added to it, so asking for the estimate along the stream
+ * only runs the Karger's algorithm on the levels which changed.
+ * The memory used is O(k n log m) for n vertices and m edges, whatever the number of edges.
+ */
+public class StreamingMinCut
+{
+    //maximum number of sampling levels, the level 30 keeps an edge out of 2^30
+    private static final int MAX_LEVELS = 31;
+
+    /**
+     * Union-find holding one forest of a certificate, growing with the vertices
+     */
+    private static class Forest
+    {
+        private int[] parent = new int[0];
+
+        /**
+         * Return the root of the set of the given vertex, halving the path to it along the way
+         * @param vertex the index of the vertex
+         * @return the index of the root of its set
+         */
+        private int find(int vertex)
+        {
+            //the vertices not reached yet are alone in their set
+            if (vertex >= parent.length)
+                return vertex;
+
+            int v = vertex;
+            while (parent[v] != v)
+            {
+                parent[v] = parent[parent[v]];
+                v = parent[v];
+            }
+            return v;
+        }
+
+        /**
+         * Merge the sets of the two given vertices if they are different
+         * @param v1 the index of the first vertex
+         * @param v2 the index of the second vertex
+         * @return true if the sets were merged, false if the vertices were already in the same set
+         */
+        private boolean union(int v1, int v2)
+        {
+            int root1 = find(v1);
+            int root2 = find(v2);
+            if (root1 == root2)
+                return false;
+
+            int needed = Math.max(root1, root2) + 1;
+            if (needed > parent.length)
+            {
+                int oldLength = parent.length;
+                parent = Arrays.copyOf(parent, Math.max(needed, 2 * oldLength));
+                for (int v = oldLength; v < parent.length; v++)
+                    parent[v] = v;
+            }
+            parent[Math.max(root1, root2)] = Math.min(root1, root2);
+            return true;
+        }
+    }
+
+    /**
+     * Certificate of the edges sampled in one level: k forests and the edges they hold
+     */
+    private class Level
+    {
+        private final Forest[] forests = new Forest[k];
+        private int[] sources = new int[16];
+        private int[] targets = new int[16];
+        private int size = 0;
+        //mincut of the certificate found by the last call to minCut, -1 before the first one,
+        //with the number of edges and of vertices the certificate had then
+        private int minCut = -1;
+        private int minCutSize;
+        private int minCutVertices;
+
+        /**
+         * Put the edge in the first forest where its endpoints are not connected, or drop it if there is none
+         * @param source the index of the first vertex
+         * @param target the index of the second vertex
+         */
+        private void add(int source, int target)
+        {
+            for (int i = 0; i < forests.length; i++)
+            {
+                if (forests[i] == null)
+                    forests[i] = new Forest();
+
+                if (forests[i].union(source, target))
+                {
+                    if (size == sources.length)
+                    {
+                        sources = Arrays.copyOf(sources, 2 * size);
+                        targets = Arrays.copyOf(targets, 2 * size);
+                    }
+                    sources[size] = source;
+                    targets[size] = target;
+                    size++;
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Return the mincut of the certificate, which is only found again if edges or vertices were added since the last call.
+         * The edges dropped because the forests already connect their endpoints do not change the certificate.
+         * @return the mincut of the certificate
+         */
+        private int minCut()
+        {
+            if (minCut == -1 || minCutSize != size || minCutVertices != vertices.size())
+            {
+                minCut = Karger.minCutPartition(toGraph(), numberOfIteration).getValue();
+                minCutSize = size;
+                minCutVertices = vertices.size();
+                minCutComputations++;
+            }
+            return minCut;
+        }
+
+        /**
+         * Return the certificate of the level as a graph on all the vertices seen so far
+         * @return the graph made of the edges of the forests
+         */
+        private IndexedGraph toGraph()
+        {
+            return new IndexedGraph(vertices.toArray(new Graph.Vertex[0]), Arrays.copyOf(sources, size), Arrays.copyOf(targets, size));
+        }
+    }
+
+    private final int k;
+    private final int numberOfIteration;
+    private final List<Graph.Vertex> vertices = new ArrayList<>();
+    private final HashMap<Graph.Vertex, Integer> indexes = new HashMap<>();
+    private final List<Level> levels = new ArrayList<>();
+    private final SplittableRandom random;
+    private long numEdges = 0;
+    private int minCutComputations = 0;
+
+    /**
+     * Create a new streaming mincut, with no vertex and no edge
+     * @param k the number of forests of each certificate, the mincuts lower than k are exact and the bigger ones are estimated with a relative error around sqrt(c ln(n) / k)
+     * @param numberOfIteration the number of trials run on a certificate to find its mincut
+     * @throws IllegalArgumentException if k or the number of iterations is lower than 1
+     */
+    public StreamingMinCut(int k, int numberOfIteration)
+    {
+        this(k, numberOfIteration, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Create a new streaming mincut whose sampling is driven by the given seed, see StreamingMinCut(int, int)
+     * @param k the number of forests of each certificate
+     * @param numberOfIteration the number of trials run on a certificate to find its mincut
+     * @param seed the seed of the sampling of the edges
+     * @throws IllegalArgumentException if k or the number of iterations is lower than 1
+     */
+    public StreamingMinCut(int k, int numberOfIteration, long seed)
+    {
+        if (k < 1)
+            throw new IllegalArgumentException("There must be at least one forest");
+
+        if (numberOfIteration < 1)
+            throw new IllegalArgumentException("There must be at least one iteration");
+
+        this.k = k;
+        this.numberOfIteration = numberOfIteration;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Consume an edge between the 2 given Vertices, see Graph.addEdge(String, String)
+     * @param v1 The label of the first vertex
+     * @param v2 The label of the second vertex
+     * @throws IllegalArgumentException if a label is null or blank
+     */
+    public void addEdge(String v1, String v2)
+    {
+        if (v1 == null || v2 == null)
+            throw new IllegalArgumentException("the labels must not be null");
+
+        if (v1.isBlank() || v2.isBlank())
+            throw new IllegalArgumentException("the labels must not be blank");
+
+        addEdge(new Graph.Vertex(v1), new Graph.Vertex(v2));
+    }
+
+    /**
+     * Consume an edge between the 2 given Vertices.
+     * The edge goes in the certificate of the levels 0 to l, l being at least i with a probability 2^-i.
+     * A loop adds its vertex but no edge, as it can never be part of a cut.
+     * @param vertex1 The first vertex
+     * @param vertex2 The second vertex
+     * @throws IllegalArgumentException if at least one of the vertices is null
+     */
+    public synchronized void addEdge(Graph.Vertex vertex1, Graph.Vertex vertex2)
+    {
+        if (vertex1 == null || vertex2 == null)
+            throw new IllegalArgumentException("The vertices must not be null");
+
+        int source = indexOf(vertex1);
+        int target = indexOf(vertex2);
+        if (source == target)
+            return;
+
+        numEdges++;
+        int lastLevel = Math.min(MAX_LEVELS - 1, Long.numberOfTrailingZeros(random.nextLong()));
+        for (int level = 0; level <= lastLevel; level++)
+        {
+            if (level == levels.size())
+                levels.add(new Level());
+            levels.get(level).add(source, target);
+        }
+    }
+
+    /**
+     * Return the current estimate of the mincut of the edges consumed so far.
+     * The levels are looked at from the first one, and the mincut of the first certificate whose mincut is lower than k,
+     * found with the Karger's algorithm, is scaled by the inverse of the sampling probability of its level.
+     * The mincut of a level is only found again if its certificate changed since the previous call.
+     * The result is exact if the mincut is lower than k.
+     * @return the estimated mincut
+     * @throws IllegalStateException if less than two vertices were seen
+     */
+    public synchronized long getEstimatedMinCut()
+    {
+        if (vertices.size() < 2)
+            throw new IllegalStateException("the graph must contain at least to vertices in order to find the mincut");
+
+        for (int level = 0; level < levels.size(); level++)
+        {
+            int value = levels.get(level).minCut();
+            if (value < k)
+                return (long) value << level;
+        }
+        //every level is saturated, which only happens with MAX_LEVELS levels: k times the sampling inverse of the last one is a lower bound
+        return numEdges == 0 ? 0 : (long) k << (levels.size() - 1);
+    }
+
+    /**
+     * Return the certificate of the first level, which holds every cut of the graph of value lower than k
+     * @return the graph made of the edges kept in the forests of the first level
+     */
+    public synchronized IndexedGraph getCertificate()
+    {
+        if (levels.isEmpty())
+            return new IndexedGraph(vertices.toArray(new Graph.Vertex[0]), new int[0], new int[0]);
+
+        return levels.get(0).toGraph();
+    }
+
+    /**
+     * Return the number of distinct vertices seen so far
+     * @return the number of vertices
+     */
+    public synchronized int getNumVertices()
+    {
+        return vertices.size();
+    }
+
+    /**
+     * Return the number of edges consumed so far, loops excluded
+     * @return the number of edges
+     */
+    public synchronized long getNumEdges()
+    {
+        return numEdges;
+    }
+
+    /**
+     * Return the number of edges stored in all the certificates, which is what the memory used depends on
+     * @return the number of stored edges
+     */
+    public synchronized long getStoredEdges()
+    {
+        long res = 0;
+        for (Level level : levels)
+            res += level.size;
+        return res;
+    }
+
+    /**
+     * Return the number of times the mincut of a certificate was found by the Karger's algorithm, used by the tests
+     * @return the number of mincut computations
+     */
+    synchronized int getMinCutComputations()
+    {
+        return minCutComputations;
+    }
+
+    /**
+     * Return the index of the given vertex, giving it the next one if it is new
+     * @param vertex the vertex
+     * @return its index
+     */
+    private int indexOf(Graph.Vertex vertex)
+    {
+        return indexes.computeIfAbsent(vertex, v -> {
+            vertices.add(v);
+            return vertices.size() - 1;
+        });
+    }
+}
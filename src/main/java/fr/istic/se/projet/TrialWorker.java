@@ -0,0 +1,162 @@
+package fr.istic.se.projet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * Worker process of a DistributedMinCut.
+ * It maps the graph file shared by the coordinator, then runs the ranges of trials the coordinator sends it
+ * and answers each range with the best cut found in it, until the coordinator tells it to stop.
+ * The trials of a range run in parallel in a pool of the given parallelism, so that the workers launched on the same machine
+ * share its cores instead of each one starting a thread per core.
+ * Usage: TrialWorker host port graphFile [parallelism]
+ */
+public class TrialWorker
+{
+    /**
+     * Hide the constructor
+     */
+    private TrialWorker()
+    {}
+
+    /**
+     * Connect to the coordinator and run the trials it sends until it tells to stop
+     * @param args the host and the port of the coordinator, the path of the graph file, and the number of threads of the worker,
+     *             all the cores by default
+     */
+    public static void main(String[] args)
+    {
+        if (args.length != 3 && args.length != 4)
+        {
+            Logger.getGlobal().severe("Usage: TrialWorker host port graphFile [parallelism]");
+            System.exit(2);
+        }
+
+        try
+        {
+            int parallelism = args.length == 4 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+            run(args[0], Integer.parseInt(args[1]), Path.of(args[2]), parallelism);
+        }
+        catch (IOException | IllegalArgumentException e)
+        {
+            Logger.getGlobal().log(Level.SEVERE, "The worker stopped", e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Connect to the coordinator and run the trials it sends until it tells to stop.
+     * The coordinator first sends the base seed of the run, then each range as its first trial and its number of trials,
+     * a number of trials of DistributedMinCut.STOP ending the work. Each range is answered with the value of the best cut
+     * found in it, followed by the number of vertices and the label of each vertex.
+     * The graph is unmapped when the work ends, once the trials still running have seen the shutdown of the pool and stopped.
+     * @param host the host of the coordinator
+     * @param port the port of the coordinator
+     * @param graphFile the graph file, created by OffHeapGraph.create(Path, int, int)
+     * @param parallelism the number of threads running the trials
+     * @throws IllegalArgumentException if the parallelism is lower than 1
+     * @throws IOException if the graph can not be mapped or the connection is lost
+     */
+    static void run(String host, int port, Path graphFile, int parallelism) throws IOException
+    {
+        if (parallelism < 1)
+            throw new IllegalArgumentException("The parallelism must be at least 1");
+
+        try (OffHeapGraph graph = OffHeapGraph.map(graphFile))
+        {
+            runTrials(host, port, graph, parallelism);
+        }
+    }
+
+    /**
+     * Run the trials sent by the coordinator on the mapped graph, see run(String, int, Path, int)
+     * @param host the host of the coordinator
+     * @param port the port of the coordinator
+     * @param graph the mapped graph, which must not be closed before this method returns
+     * @param parallelism the number of threads running the trials
+     * @throws IOException if the connection is lost
+     */
+    private static void runTrials(String host, int port, OffHeapGraph graph, int parallelism) throws IOException
+    {
+        boolean parallelContraction = graph.getNumEdges() >= Karger.PARALLEL_CONTRACTION_THRESHOLD;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try (Socket socket = new Socket(host, port);
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream())))
+        {
+            long seed = in.readLong();
+            while (true)
+            {
+                int first = in.readInt();
+                int count = in.readInt();
+                if (count == DistributedMinCut.STOP)
+                    return;
+
+                //the parallel stream, and the parallel contractions it starts, run in the pool of the worker and not in the common one.
+                //the trials stop as soon as the pool is shut down, which only happens when the work is abandoned
+                Contraction.Result best = pool.submit(() -> IntStream.range(first, first + count).parallel()
+                        .mapToObj(i -> Contraction.trial(graph, 2, Contraction.trialSeed(seed, i), parallelContraction, pool::isShutdown))
+                        .filter(Objects::nonNull)
+                        .min(Comparator.comparingInt(Contraction.Result::getValue))
+                        .orElseThrow()).get();
+
+                out.writeInt(best.getValue());
+                out.writeInt(best.getLabels().length);
+                for (int label : best.getLabels())
+                    out.writeInt(label);
+                out.flush();
+            }
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while running the trials", e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new IOException("A trial failed", e.getCause());
+        }
+        finally
+        {
+            pool.shutdownNow();
+            awaitTermination(pool);
+        }
+    }
+
+    /**
+     * Wait for the end of the tasks of a pool which is shut down, so the graph they read can be unmapped.
+     * The wait goes on if the thread is interrupted, its interrupted status being set again afterwards.
+     * @param pool the pool, already shut down
+     */
+    private static void awaitTermination(ForkJoinPool pool)
+    {
+        boolean interrupted = false;
+        while (!pool.isTerminated())
+        {
+            try
+            {
+                pool.awaitTermination(1, TimeUnit.SECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                interrupted = true;
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
+}
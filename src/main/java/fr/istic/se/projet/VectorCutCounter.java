@@ -0,0 +1,44 @@
+package fr.istic.se.projet;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Class counting the crossing edges of a block of the flat arrays of an indexed graph with the vector API,
+ * a vector of edges at a time: the endpoints are loaded from the arrays, their labels gathered, and the lanes
+ * whose labels differ are counted. It needs the jdk.incubator.vector module, see CutCounter.VECTOR_ENABLED,
+ * and it is only loaded when the module is present.
+ */
+class VectorCutCounter
+{
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    /**
+     * Hide the constructor
+     */
+    private VectorCutCounter()
+    {}
+
+    /**
+     * Count the crossing edges between the given bounds, the last edges which do not fill a vector being counted by the scalar loop
+     * @param sources the first endpoint of each edge
+     * @param targets the second endpoint of each edge
+     * @param labels the label of each vertex
+     * @param from the first edge to count, included
+     * @param to the last edge to count, excluded
+     * @return the number of crossing edges between from and to
+     */
+    static int countBlock(int[] sources, int[] targets, int[] labels, int from, int to)
+    {
+        int res = 0;
+        int e = from;
+        for (int bound = from + SPECIES.loopBound(to - from); e < bound; e += SPECIES.length())
+        {
+            IntVector sourceLabels = IntVector.fromArray(SPECIES, labels, 0, sources, e);
+            IntVector targetLabels = IntVector.fromArray(SPECIES, labels, 0, targets, e);
+            res += sourceLabels.compare(VectorOperators.NE, targetLabels).trueCount();
+        }
+        return res + CutCounter.countScalar(sources, targets, labels, e, to);
+    }
+}
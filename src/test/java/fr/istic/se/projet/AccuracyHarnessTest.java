@@ -0,0 +1,75 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccuracyHarnessTest {
+
+    @Test
+    @DisplayName("test the measures and the report of the harness")
+    void testRun() throws IOException
+    {
+        List<PlantedGraph> graphs = List.of(PlantedGraph.dumbbell(10, 2, null), PlantedGraph.gridWithWeakLinks(3, 4, 1, null));
+        List<AccuracyHarness.Measure> measures = AccuracyHarness.run(graphs, 100, 7);
+        for (PlantedGraph graph : graphs)
+            graph.close();
+        assertEquals(2 * AccuracyHarness.Mode.values().length, measures.size());
+        for (AccuracyHarness.Measure measure : measures)
+        {
+            assertTrue(measure.getSuccessProbability() > 0 && measure.getSuccessProbability() <= 1);
+            assertTrue(measure.getTimeToCorrectMillis() >= 0);
+            assertTrue(measure.getExpectedTimeToCorrectMillis() >= 0);
+        }
+        //the same seeds give the same trials in the sequential and parallel modes
+        assertEquals(measures.get(0).getSuccessProbability(), measures.get(1).getSuccessProbability());
+
+        String report = AccuracyHarness.toJson(measures);
+        assertTrue(report.startsWith("[") && report.endsWith("]"));
+        assertTrue(report.contains("\"graph\":\"dumbbell(size=10,links=2)\",\"mode\":\"PARALLEL_TRIALS\""));
+        assertEquals(measures.size(), report.split("successProbability").length - 1);
+
+        assertThrows(IllegalArgumentException.class, () -> AccuracyHarness.run(graphs, 0, 7));
+
+        //a run compared to itself has no regression, the report rounding the numbers
+        assertTrue(AccuracyHarness.compare(measures, report, 0.01).isEmpty());
+    }
+
+    @Test
+    @DisplayName("test the comparison of a run to a reference report")
+    void testCompare()
+    {
+        //50 successes out of 100 trials in 1000 ms: a probability of 0.5 and an expected time to correct of 20 ms
+        String reference = AccuracyHarness.toJson(List.of(
+                new AccuracyHarness.Measure("g \"1\"", AccuracyHarness.Mode.SEQUENTIAL, 100, 50, 10.0, 1000.0, 5.0),
+                new AccuracyHarness.Measure("g \"1\"", AccuracyHarness.Mode.PARALLEL_TRIALS, 100, 0, 10.0, 1000.0, -1.0)));
+
+        List<AccuracyHarness.Measure> same = List.of(new AccuracyHarness.Measure("g \"1\"", AccuracyHarness.Mode.SEQUENTIAL, 100, 48, 10.0, 1000.0, 5.0));
+        assertTrue(AccuracyHarness.compare(same, reference, 0.1).isEmpty());
+
+        List<AccuracyHarness.Measure> lessSuccesses = List.of(new AccuracyHarness.Measure("g \"1\"", AccuracyHarness.Mode.SEQUENTIAL, 100, 40, 10.0, 800.0, 5.0));
+        List<String> regressions = AccuracyHarness.compare(lessSuccesses, reference, 0.1);
+        assertEquals(1, regressions.size());
+        assertTrue(regressions.get(0).contains("success probability"));
+
+        List<AccuracyHarness.Measure> slower = List.of(new AccuracyHarness.Measure("g \"1\"", AccuracyHarness.Mode.SEQUENTIAL, 100, 50, 20.0, 2000.0, 5.0));
+        assertEquals(1, AccuracyHarness.compare(slower, reference, 0.1).size());
+        assertTrue(AccuracyHarness.compare(slower, reference, 1.5).isEmpty());
+
+        List<AccuracyHarness.Measure> noSuccess = List.of(new AccuracyHarness.Measure("g \"1\"", AccuracyHarness.Mode.SEQUENTIAL, 100, 0, 10.0, 1000.0, -1.0));
+        assertEquals(2, AccuracyHarness.compare(noSuccess, reference, 0.1).size());
+
+        //a mode without success in the reference, or a graph missing from it, can not regress on time
+        List<AccuracyHarness.Measure> notCompared = List.of(
+                new AccuracyHarness.Measure("g \"1\"", AccuracyHarness.Mode.PARALLEL_TRIALS, 100, 0, 50.0, 5000.0, -1.0),
+                new AccuracyHarness.Measure("other", AccuracyHarness.Mode.SEQUENTIAL, 100, 0, 10.0, 1000.0, -1.0));
+        assertTrue(AccuracyHarness.compare(notCompared, reference, 0.0).isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> AccuracyHarness.compare(same, null, 0.1));
+        assertThrows(IllegalArgumentException.class, () -> AccuracyHarness.compare(same, reference, -0.1));
+    }
+}
@@ -0,0 +1,107 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnytimeMinCutTest {
+
+    /**
+     * Create a dense random graph, slow enough to contract for the deadline to be reached
+     * @return the graph
+     */
+    private static Graph denseGraph()
+    {
+        Random random = new Random(5);
+        Graph graph = new Graph();
+        for (int i = 0; i < 300; i++)
+            graph.addEdge(Integer.toString(i), Integer.toString((i + 1) % 300));
+        for (int j = 0; j < 30000; j++)
+        {
+            int v1 = random.nextInt(300);
+            int v2 = random.nextInt(300);
+            if (v1 != v2)
+                graph.addEdge(Integer.toString(v1), Integer.toString(v2));
+        }
+        return graph;
+    }
+
+    @Test
+    @DisplayName("test the async minCut until all the trials are done")
+    void testMinCutAsync() throws Exception
+    {
+        Graph graph = new Graph();
+        graph.addEdges(new String[]{"1--2", "1--3", "1--4", "1--5", "2--3", "2--4", "2--5", "3--4", "3--5", "4--5",  "6--7", "6--8", "6--9", "6--10", "7--8", "7--9", "7--10", "8--9", "8--10", "9--10", "5--10", "4--6", "3--7"});
+        List<Integer> published = Collections.synchronizedList(new ArrayList<>());
+
+        Cut cut = Karger.minCutAsync(graph, 200, Duration.ofMinutes(1), c -> published.add(c.getValue())).get(1, TimeUnit.MINUTES);
+        assertEquals(3, cut.getValue());
+        assertEquals(3, (int) published.get(published.size() - 1));
+        for (int i = 1; i < published.size(); i++)
+            assertTrue(published.get(i) < published.get(i - 1));
+    }
+
+    @Test
+    @DisplayName("test that the async minCut returns the best cut so far at the deadline")
+    void testDeadline() throws Exception
+    {
+        Graph graph = denseGraph();
+        long start = System.nanoTime();
+        CompletableFuture<Cut> future = Karger.minCutAsync(graph, Integer.MAX_VALUE, Duration.ofMillis(500), null);
+        Cut cut = future.get(10, TimeUnit.SECONDS);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(cut.getValue(), CutCounter.count(new IndexedGraph(graph), cut));
+    }
+
+    @Test
+    @DisplayName("test the cancellation of the async minCut")
+    void testCancel()
+    {
+        CompletableFuture<Cut> future = Karger.minCutAsync(denseGraph(), Integer.MAX_VALUE, Duration.ofMinutes(10), null);
+        assertTrue(future.cancel(true));
+        assertThrows(CancellationException.class, future::join);
+    }
+
+    @Test
+    @DisplayName("test the async minCut with illegal arguments and trivial graphs")
+    void testIllegalArguments() throws ExecutionException, InterruptedException
+    {
+        Graph graph = new Graph();
+        graph.addEdges(new String[]{"1 -- 2", "3 -- 4"});
+        assertEquals(0, Karger.minCutAsync(graph, 10, Duration.ZERO, null).get().getValue());
+
+        assertThrows(IllegalArgumentException.class, () -> Karger.minCutAsync(null, 10, Duration.ZERO, null));
+        assertThrows(IllegalArgumentException.class, () -> Karger.minCutAsync(graph, 10, null, null));
+        assertThrows(IllegalArgumentException.class, () -> Karger.minCutAsync(graph, 0, Duration.ZERO, null));
+
+        //a failing subscriber does not reach the caller, even when the cut is trivial
+        assertEquals(0, Karger.minCutAsync(graph, 10, Duration.ZERO, c -> { throw new IllegalStateException(); }).get().getValue());
+    }
+
+    @Test
+    @DisplayName("test that the deadline is dropped when the trials end before it, and that a huge timeout is allowed")
+    void testEarlyEnd() throws Exception
+    {
+        Graph graph = new Graph();
+        graph.addEdges(new String[]{"1 -- 2", "2 -- 3", "3 -- 4", "4 -- 1"});
+        Cut cut = Karger.minCutAsync(graph, 50, Duration.ofSeconds(Long.MAX_VALUE), null).get(1, TimeUnit.MINUTES);
+        assertEquals(2, cut.getValue());
+        assertEquals(Long.MAX_VALUE, AnytimeMinCut.toNanos(Duration.ofSeconds(Long.MAX_VALUE)));
+
+        long start = System.nanoTime();
+        while (AnytimeMinCut.getPendingDeadlines() > 0 && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5))
+            Thread.sleep(10);
+        assertEquals(0, AnytimeMinCut.getPendingDeadlines());
+    }
+}
@@ -0,0 +1,104 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchMinCutTest {
+
+    /**
+     * Create a cycle through the given number of vertices, its mincut is 2
+     * @param numVertices the number of vertices
+     * @return the edges of the cycle, with the format of addEdges
+     */
+    private static String[] cycle(int numVertices)
+    {
+        return IntStream.range(0, numVertices).mapToObj(i -> i + " -- " + (i + 1) % numVertices).toArray(String[]::new);
+    }
+
+    @Test
+    @DisplayName("test the batch on a stream of graphs")
+    void testMinCuts()
+    {
+        Stream<Graph> graphs = IntStream.range(3, 203).mapToObj(i -> {
+            Graph graph = new Graph();
+            graph.addEdges(cycle(i));
+            return graph;
+        });
+
+        List<BatchMinCut.Result> results;
+        try (Stream<BatchMinCut.Result> stream = new BatchMinCut(50, 8).minCuts(graphs))
+        {
+            results = stream.collect(Collectors.toList());
+        }
+
+        assertEquals(200, results.size());
+        Set<Integer> indexes = new HashSet<>();
+        for (BatchMinCut.Result result : results)
+        {
+            assertNull(result.getError());
+            assertEquals(2, result.getCut().getValue());
+            assertEquals(Integer.toString(result.getIndex()), result.getSource());
+            indexes.add(result.getIndex());
+        }
+        assertEquals(200, indexes.size());
+    }
+
+    @Test
+    @DisplayName("test the batch on files, with a missing one")
+    void testMinCutFiles() throws IOException
+    {
+        Path directory = Files.createTempDirectory("batch");
+        Files.write(directory.resolve("cycle.txt"), List.of(cycle(10)));
+        Files.write(directory.resolve("disconnected.txt"), List.of("1 -- 2", "3 -- 4"));
+
+        List<BatchMinCut.Result> results = new BatchMinCut(20, 1)
+                .minCutFiles(Stream.of("cycle.txt", "disconnected.txt", "missing.txt").map(directory::resolve))
+                .collect(Collectors.toList());
+
+        assertEquals(3, results.size());
+        for (BatchMinCut.Result result : results)
+        {
+            if (result.getSource().endsWith("cycle.txt"))
+                assertEquals(2, result.getCut().getValue());
+            else if (result.getSource().endsWith("disconnected.txt"))
+                assertEquals(0, result.getCut().getValue());
+            else
+                assertTrue(result.getError() instanceof IOException);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> new BatchMinCut(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BatchMinCut(1, 0));
+    }
+
+    @Test
+    @DisplayName("test that the batch ends when a graph can not be submitted to the pool")
+    void testRejectedSubmission()
+    {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        pool.shutdown();
+        Stream<Graph> graphs = IntStream.range(3, 6).mapToObj(i -> {
+            Graph graph = new Graph();
+            graph.addEdges(cycle(i));
+            return graph;
+        });
+
+        List<BatchMinCut.Result> results = new BatchMinCut(10, 1, pool).minCuts(graphs).collect(Collectors.toList());
+        assertEquals(1, results.size());
+        assertEquals("stream of sources", results.get(0).getSource());
+        assertTrue(results.get(0).getError() instanceof RejectedExecutionException);
+    }
+}
@@ -0,0 +1,113 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointedMinCutTest {
+
+    /**
+     * Create two cliques of the given size linked by three edges, its mincut is 3
+     * @param size the number of vertices of each clique
+     * @return the graph
+     */
+    private static IndexedGraph twoCliques(int size)
+    {
+        Graph graph = new Graph();
+        for (int offset = 0; offset < 2 * size; offset += size)
+        {
+            for (int i = 0; i < size; i++)
+            {
+                for (int j = i + 1; j < size; j++)
+                    graph.addEdge(Integer.toString(offset + i), Integer.toString(offset + j));
+            }
+        }
+        for (int i = 0; i < 3; i++)
+            graph.addEdge(Integer.toString(i), Integer.toString(size + i));
+        return new IndexedGraph(graph);
+    }
+
+    /**
+     * Index the vertices of the graph in the reverse order, and reverse the edges
+     * @param graph the graph
+     * @return the same graph with other indexes
+     */
+    private static IndexedGraph reversed(IndexedGraph graph)
+    {
+        int n = graph.getNumVertices();
+        Graph.Vertex[] vertices = new Graph.Vertex[n];
+        for (int i = 0; i < n; i++)
+            vertices[i] = graph.getVertex(n - 1 - i);
+        int[] sources = new int[graph.getNumEdges()];
+        int[] targets = new int[graph.getNumEdges()];
+        for (int e = 0; e < graph.getNumEdges(); e++)
+        {
+            int reversedEdge = graph.getNumEdges() - 1 - e;
+            sources[reversedEdge] = n - 1 - graph.getTarget(e);
+            targets[reversedEdge] = n - 1 - graph.getSource(e);
+        }
+        return new IndexedGraph(vertices, sources, targets);
+    }
+
+    @Test
+    @DisplayName("test a run with checkpoints, and the resume of a finished run")
+    void testMinCutPartition() throws IOException
+    {
+        IndexedGraph graph = twoCliques(10);
+        Path file = Files.createTempFile("karger", ".ckpt");
+        try
+        {
+            Cut cut = CheckpointedMinCut.minCutPartition(graph, 200, file, 30);
+            assertEquals(3, cut.getValue());
+
+            CheckpointedMinCut.Checkpoint state = CheckpointedMinCut.Checkpoint.read(file, graph);
+            assertEquals(200, state.getCompleted());
+            assertEquals(3, state.getBest().getValue());
+            assertEquals(cut, CheckpointedMinCut.resume(graph, file));
+            assertFalse(Files.exists(file.resolveSibling(file.getFileName() + ".tmp")));
+
+            //the same graph with other indexes resumes the run with the same partition
+            IndexedGraph reversedGraph = reversed(graph);
+            assertEquals(CheckpointedMinCut.fingerprint(graph), CheckpointedMinCut.fingerprint(reversedGraph));
+            assertEquals(cut, CheckpointedMinCut.resume(reversedGraph, file));
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("test the resume of an interrupted run")
+    void testResume() throws IOException
+    {
+        IndexedGraph graph = twoCliques(10);
+        Path file = Files.createTempFile("karger", ".ckpt");
+        Path notACheckpoint = Files.createTempFile("karger", ".txt");
+        try
+        {
+            //state of a run stopped after 40 trials out of 200, without any result
+            new CheckpointedMinCut.Checkpoint(CheckpointedMinCut.fingerprint(graph), 42, 200, 20, 40, null).write(file, graph);
+
+            assertEquals(3, CheckpointedMinCut.resume(graph, file).getValue());
+            assertEquals(200, CheckpointedMinCut.Checkpoint.read(file, graph).getCompleted());
+
+            IndexedGraph otherGraph = twoCliques(11);
+            assertThrows(IOException.class, () -> CheckpointedMinCut.resume(otherGraph, file));
+
+            Files.writeString(notACheckpoint, "1 -- 2\n");
+            assertThrows(IOException.class, () -> CheckpointedMinCut.resume(graph, notACheckpoint));
+            assertThrows(IllegalArgumentException.class, () -> CheckpointedMinCut.minCutPartition(graph, 10, file, 0));
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(notACheckpoint);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedGraphTest {
+
+    /**
+     * Return the edges of the graph as sorted "low-high" strings, to compare graphs whatever the order of their edges
+     * @param graph the graph
+     * @return the sorted list of its edges
+     */
+    private static List<String> edges(EdgeList graph)
+    {
+        List<String> res = new ArrayList<>();
+        for (int e = 0; e < graph.getNumEdges(); e++)
+        {
+            int source = graph.getSource(e);
+            int target = graph.getTarget(e);
+            res.add(Math.min(source, target) + "-" + Math.max(source, target));
+        }
+        Collections.sort(res);
+        return res;
+    }
+
+    @Test
+    @DisplayName("test that the compressed graph has the same edges, with parallel edges and big gaps")
+    void testSameEdges()
+    {
+        Random random = new Random(11);
+        int numVertices = 100000;
+        int[] sources = new int[50000];
+        int[] targets = new int[sources.length];
+        Graph.Vertex[] vertices = new Graph.Vertex[numVertices];
+        for (int i = 0; i < numVertices; i++)
+            vertices[i] = new Graph.Vertex(Integer.toString(i));
+        for (int e = 0; e < sources.length; e++)
+        {
+            sources[e] = random.nextInt(numVertices);
+            targets[e] = e % 10 == 0 ? sources[(e + 9) % sources.length] : random.nextInt(numVertices);
+        }
+        IndexedGraph graph = new IndexedGraph(vertices, sources, targets);
+        CompressedGraph compressed = new CompressedGraph(graph);
+
+        assertEquals(graph.getNumVertices(), compressed.getNumVertices());
+        assertEquals(graph.getNumEdges(), compressed.getNumEdges());
+        assertEquals(edges(graph), edges(compressed));
+
+        List<String> enumerated = new ArrayList<>();
+        compressed.forEachEdge(0, compressed.getNumEdges(), (e, source, target) -> {
+            assertEquals(compressed.getSource(e), source);
+            enumerated.add(source + "-" + target);
+        });
+        Collections.sort(enumerated);
+        assertEquals(edges(graph), enumerated);
+
+        //a batch in a random order, with an edge twice
+        int[] batch = new int[1001];
+        for (int i = 0; i < 1000; i++)
+            batch[i + 1] = random.nextInt(compressed.getNumEdges());
+        batch[0] = batch[1000];
+        int[] batchSources = new int[1000];
+        int[] batchTargets = new int[1000];
+        compressed.getEdges(batch, 1, 1001, batchSources, batchTargets);
+        for (int i = 0; i < 1000; i++)
+        {
+            assertEquals(compressed.getSource(batch[i + 1]), batchSources[i]);
+            assertEquals(compressed.getTarget(batch[i + 1]), batchTargets[i]);
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> compressed.getEdges(new int[]{-1}, 0, 1, batchSources, batchTargets));
+    }
+
+    @Test
+    @DisplayName("test the size and the minCut of a compressed graph with close neighbours")
+    void testMinCut()
+    {
+        //ring where each vertex is linked to its 4 next vertices, its mincut is 8
+        Graph graph = new Graph();
+        int numVertices = 2000;
+        for (int i = 0; i < numVertices; i++)
+        {
+            for (int d = 1; d <= 4; d++)
+                graph.addEdge(Integer.toString(i), Integer.toString((i + d) % numVertices));
+        }
+        CompressedGraph compressed = new CompressedGraph(graph);
+        assertEquals(4 * numVertices, compressed.getNumEdges());
+        //the vertices are renumbered along the ring instead of the order of the HashMap, so the gaps take one byte
+        assertTrue(compressed.getDataSize() < 1.1 * compressed.getNumEdges(), Integer.toString(compressed.getDataSize()));
+        assertTrue(compressed.getDataSize() < new CompressedGraph(new IndexedGraph(graph)).getDataSize());
+
+        Cut cut = Karger.minCutPartition(compressed, 20);
+        assertEquals(CutCounter.count(new IndexedGraph(graph), cut), cut.getValue());
+        assertTrue(cut.getValue() >= 8);
+    }
+
+    @Test
+    @DisplayName("test the compression of a graph whose vertices are numbered along the neighbourhoods")
+    void testCompressionRatio()
+    {
+        int numVertices = 10000;
+        Graph.Vertex[] vertices = new Graph.Vertex[numVertices];
+        int[] sources = new int[4 * numVertices];
+        int[] targets = new int[sources.length];
+        for (int i = 0; i < numVertices; i++)
+        {
+            vertices[i] = new Graph.Vertex(Integer.toString(i));
+            for (int d = 1; d <= 4; d++)
+            {
+                sources[4 * i + d - 1] = i;
+                targets[4 * i + d - 1] = (i + d) % numVertices;
+            }
+        }
+        CompressedGraph compressed = new CompressedGraph(new IndexedGraph(vertices, sources, targets));
+
+        //one byte per edge except for the few which wrap around the ring, instead of 8 in an IndexedGraph
+        assertTrue(compressed.getDataSize() < 1.1 * compressed.getNumEdges());
+        assertThrows(IllegalArgumentException.class, () -> new CompressedGraph((EdgeList) null));
+    }
+}
@@ -0,0 +1,79 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentGraphBuilderTest {
+
+    @Test
+    @DisplayName("test the builder with several producers")
+    void testConcurrentProducers() throws InterruptedException
+    {
+        final int NUMBER_PRODUCERS = 8;
+        final int EDGES_PER_PRODUCER = 20000;
+        ConcurrentGraphBuilder builder = new ConcurrentGraphBuilder();
+
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < NUMBER_PRODUCERS; p++)
+        {
+            final int seed = p;
+            Thread producer = new Thread(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < EDGES_PER_PRODUCER; i++)
+                    builder.addEdge(Integer.toString(random.nextInt(1000)), Integer.toString(random.nextInt(1000)));
+            });
+            producers.add(producer);
+            producer.start();
+        }
+        for (Thread producer : producers)
+            producer.join();
+
+        Graph graph = builder.freeze();
+
+        //the same edges added sequentially
+        Graph expected = new Graph();
+        for (int p = 0; p < NUMBER_PRODUCERS; p++)
+        {
+            Random random = new Random(p);
+            for (int i = 0; i < EDGES_PER_PRODUCER; i++)
+                expected.addEdge(Integer.toString(random.nextInt(1000)), Integer.toString(random.nextInt(1000)));
+        }
+
+        assertEquals(expected.getNumEdges(), graph.getNumEdges());
+        assertEquals(expected.getVerticesSet(), graph.getVerticesSet());
+        for (Graph.Vertex vertex : expected.getVerticesSet())
+        {
+            List<Graph.Vertex> expectedList = new ArrayList<>(expected.connectedVertices(vertex));
+            List<Graph.Vertex> list = new ArrayList<>(graph.connectedVertices(vertex));
+            expectedList.sort((a, b) -> a.getLabel().compareTo(b.getLabel()));
+            list.sort((a, b) -> a.getLabel().compareTo(b.getLabel()));
+            assertEquals(expectedList, list);
+        }
+    }
+
+    @Test
+    @DisplayName("test the freeze and the illegal edges")
+    void testFreeze()
+    {
+        ConcurrentGraphBuilder builder = new ConcurrentGraphBuilder(3);
+        builder.addEdge("1", "2");
+        builder.addEdge(new Graph.Vertex("2"), new Graph.Vertex("3"));
+        assertThrows(IllegalArgumentException.class, () -> builder.addEdge(null, "2"));
+        assertThrows(IllegalArgumentException.class, () -> builder.addEdge(" ", "2"));
+
+        Graph graph = builder.freeze();
+        assertEquals(3, graph.getNumVertices());
+        assertEquals(4, graph.getNumEdges());
+        assertTrue(graph.connected(new Graph.Vertex("3"), new Graph.Vertex("2")));
+
+        assertThrows(IllegalStateException.class, () -> builder.addEdge("1", "3"));
+        assertThrows(IllegalStateException.class, builder::freeze);
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentGraphBuilder(0));
+    }
+}
@@ -0,0 +1,86 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectivityTest {
+
+    @Test
+    @DisplayName("test the components of a disconnected graph")
+    void testComponents()
+    {
+        Graph graph = new Graph();
+        graph.addEdges(new String[]{"1 -- 2", "2 -- 3", "4 -- 5"});
+        IndexedGraph indexed = new IndexedGraph(graph);
+
+        assertFalse(Connectivity.isConnected(indexed));
+        int[] labels = Connectivity.components(indexed);
+        for (int i = 0; i < indexed.getNumVertices(); i++)
+        {
+            for (int j = 0; j < indexed.getNumVertices(); j++)
+            {
+                boolean sameComponent = Integer.parseInt(indexed.getVertex(i).getLabel()) <= 3 == Integer.parseInt(indexed.getVertex(j).getLabel()) <= 3;
+                assertEquals(sameComponent, labels[i] == labels[j]);
+            }
+        }
+
+        graph.addEdge("3", "4");
+        assertTrue(Connectivity.isConnected(new IndexedGraph(graph)));
+    }
+
+    @Test
+    @DisplayName("test the bridges, with parallel edges")
+    void testBridges()
+    {
+        Graph graph = new Graph();
+        graph.addEdges(new String[]{"1 -- 2", "2 -- 3", "3 -- 1", "3 -- 4", "4 -- 5", "4 -- 5"});
+        IndexedGraph indexed = new IndexedGraph(graph);
+
+        List<Integer> bridges = Connectivity.bridges(indexed);
+        assertEquals(1, bridges.size());
+        Set<String> endpoints = Set.of(indexed.getVertex(indexed.getSource(bridges.get(0))).getLabel(), indexed.getVertex(indexed.getTarget(bridges.get(0))).getLabel());
+        assertEquals(Set.of("3", "4"), endpoints);
+    }
+
+    @Test
+    @DisplayName("test the trivial cuts")
+    void testTrivialCut()
+    {
+        Graph graph = new Graph();
+        graph.addEdges(new String[]{"1 -- 2", "2 -- 3", "3 -- 1", "4 -- 5", "5 -- 6", "6 -- 4"});
+        Cut cut = Connectivity.trivialCut(graph);
+        assertNotNull(cut);
+        assertEquals(0, cut.getValue());
+        assertEquals(3, cut.getFirstSide().size());
+        assertEquals(3, cut.getSecondSide().size());
+
+        graph.addEdge("3", "4");
+        cut = Connectivity.trivialCut(graph);
+        assertNotNull(cut);
+        assertEquals(1, cut.getValue());
+        assertTrue(cut.getFirstSide().contains(new Graph.Vertex("1")) != cut.getFirstSide().contains(new Graph.Vertex("4")));
+
+        graph.addEdge("2", "5");
+        assertNull(Connectivity.trivialCut(graph));
+        assertThrows(IllegalArgumentException.class, () -> Connectivity.trivialCut((Graph) null));
+    }
+
+    @Test
+    @DisplayName("test the minCut of graphs with a bridge or disconnected")
+    void testMinCutShortCircuit()
+    {
+        Graph graph = new Graph();
+        graph.addEdges(new String[]{"1 -- 2", "2 -- 3", "3 -- 1", "4 -- 5", "5 -- 6", "6 -- 4"});
+        assertEquals(0, Karger.minCut(graph, 1));
+        assertEquals(0, Karger.minCut(graph, 1, true));
+
+        graph.addEdge("1", "4");
+        assertEquals(1, Karger.minCut(graph, 1));
+        assertEquals(1, Karger.minCut(graph, 1, true));
+    }
+}
@@ -0,0 +1,96 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ContractionTest {
+
+    /**
+     * Create a random connected graph: a cycle through all the vertices plus random edges
+     * @param numVertices the number of vertices
+     * @param numEdges the number of random edges added to the cycle
+     * @return the graph
+     */
+    private static IndexedGraph randomGraph(int numVertices, int numEdges)
+    {
+        Random random = new Random(42);
+        Graph.Vertex[] vertices = new Graph.Vertex[numVertices];
+        for (int i = 0; i < numVertices; i++)
+            vertices[i] = new Graph.Vertex(Integer.toString(i));
+
+        int[] sources = new int[numVertices + numEdges];
+        int[] targets = new int[numVertices + numEdges];
+        for (int i = 0; i < numVertices; i++)
+        {
+            sources[i] = i;
+            targets[i] = (i + 1) % numVertices;
+        }
+        for (int e = numVertices; e < sources.length; e++)
+        {
+            sources[e] = random.nextInt(numVertices);
+            do
+            {
+                targets[e] = random.nextInt(numVertices);
+            } while (targets[e] == sources[e]);
+        }
+        return new IndexedGraph(vertices, sources, targets);
+    }
+
+    @Test
+    @DisplayName("test the sequential contraction")
+    void testContract()
+    {
+        IndexedGraph graph = randomGraph(200, 2000);
+        for (int k = 1; k <= 5; k++)
+        {
+            int[] labels = Contraction.contract(graph, k, Contraction.trialSeed(1, k));
+            assertEquals(k, Arrays.stream(labels).distinct().count());
+        }
+        assertArrayEquals(Contraction.contract(graph, 2, 7), Contraction.contract(graph, 2, 7));
+    }
+
+    @Test
+    @DisplayName("test the parallel contraction on a graph big enough to be merged in parallel")
+    void testContractParallel()
+    {
+        IndexedGraph graph = randomGraph(5000, 100000);
+        for (int k = 1; k <= 5; k++)
+        {
+            int[] labels = Contraction.contractParallel(graph, k, Contraction.trialSeed(2, k));
+            assertEquals(k, Arrays.stream(labels).distinct().count());
+        }
+    }
+
+    @Test
+    @DisplayName("test the contraction of a disconnected graph")
+    void testContractDisconnected()
+    {
+        Graph graph = new Graph();
+        graph.addEdges(new String[]{"1 -- 2", "3 -- 4", "5 -- 6"});
+        IndexedGraph indexed = new IndexedGraph(graph);
+        assertEquals(3, Arrays.stream(Contraction.contract(indexed, 2, 0)).distinct().count());
+        assertEquals(3, Arrays.stream(Contraction.contractParallel(indexed, 2, 0)).distinct().count());
+        assertThrows(IllegalArgumentException.class, () -> Contraction.contract(indexed, 0, 0));
+    }
+
+    @Test
+    @DisplayName("test the minCutPartition method")
+    void testMinCutPartition()
+    {
+        Graph graph = new Graph();
+        graph.addEdges(new String[]{"1--2", "1--3", "1--4", "1--5", "2--3", "2--4", "2--5", "3--4", "3--5", "4--5",  "6--7", "6--8", "6--9", "6--10", "7--8", "7--9", "7--10", "8--9", "8--10", "9--10", "5--10", "4--6", "3--7"});
+        Cut cut = Karger.minCutPartition(graph, 100);
+        assertEquals(3, cut.getValue());
+        assertEquals(5, cut.getFirstSide().size());
+        assertEquals(cut.getFirstSide().contains(new Graph.Vertex("1")), cut.getFirstSide().contains(new Graph.Vertex("5")));
+        assertNotEquals(cut.getFirstSide().contains(new Graph.Vertex("1")), cut.getFirstSide().contains(new Graph.Vertex("6")));
+
+        assertThrows(IllegalArgumentException.class, () -> Karger.minCutPartition(graph, 0));
+        assertThrows(IllegalArgumentException.class, () -> Karger.minCutPartition((Graph) null, 10));
+    }
+}
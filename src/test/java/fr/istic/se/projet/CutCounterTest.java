@@ -0,0 +1,79 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CutCounterTest {
+
+    @Test
+    @DisplayName("test the count of the crossing edges")
+    void testCount()
+    {
+        Graph graph = new Graph();
+        graph.addEdges(new String[]{"1 -- 2", "2 -- 3", "3 -- 4", "4 -- 1", "1 -- 3"});
+        IndexedGraph indexed = new IndexedGraph(graph);
+
+        Set<Graph.Vertex> side = Set.of(new Graph.Vertex("1"), new Graph.Vertex("2"));
+        int[] labels = CutCounter.labels(indexed, side);
+        assertEquals(3, CutCounter.count(indexed, labels));
+        assertEquals(3, CutCounter.crossingEdges(indexed, labels).length);
+        assertEquals(3, CutCounter.count(indexed, new Cut(3, side, Set.of())));
+
+        for (int e : CutCounter.crossingEdges(indexed, labels))
+            assertNotEquals(labels[indexed.getSource(e)], labels[indexed.getTarget(e)]);
+
+        assertThrows(IllegalArgumentException.class, () -> CutCounter.count(indexed, new int[1]));
+        assertThrows(IllegalArgumentException.class, () -> CutCounter.count(null, labels));
+    }
+
+    @Test
+    @DisplayName("test the parallel count against the list of crossing edges")
+    void testCountBigScale()
+    {
+        Random random = new Random(3);
+        int numVertices = 10000;
+        int numEdges = 300000;
+        Graph.Vertex[] vertices = new Graph.Vertex[numVertices];
+        for (int i = 0; i < numVertices; i++)
+            vertices[i] = new Graph.Vertex(Integer.toString(i));
+
+        int[] sources = random.ints(numEdges, 0, numVertices).toArray();
+        int[] targets = random.ints(numEdges, 0, numVertices).toArray();
+        IndexedGraph graph = new IndexedGraph(vertices, sources, targets);
+        int[] labels = random.ints(numVertices, 0, 3).toArray();
+
+        int expected = 0;
+        for (int e = 0; e < numEdges; e++)
+        {
+            if (labels[sources[e]] != labels[targets[e]])
+                expected++;
+        }
+        assertEquals(expected, CutCounter.count(graph, labels));
+        assertEquals(expected, CutCounter.crossingEdges(graph, labels).length);
+    }
+
+    @Test
+    @DisplayName("test that the kernel of the indexed graphs gives the same count as the scalar loop")
+    void testKernelMatchesScalarLoop()
+    {
+        Random random = new Random(7);
+        for (int numEdges : new int[]{0, 1, 7, 8, 9, 33, 1000, 100_003})
+        {
+            int numVertices = 50;
+            Graph.Vertex[] vertices = new Graph.Vertex[numVertices];
+            for (int i = 0; i < numVertices; i++)
+                vertices[i] = new Graph.Vertex(Integer.toString(i));
+            int[] sources = random.ints(numEdges, 0, numVertices).toArray();
+            int[] targets = random.ints(numEdges, 0, numVertices).toArray();
+            int[] labels = random.ints(numVertices, 0, 3).toArray();
+
+            IndexedGraph indexed = new IndexedGraph(vertices, sources, targets);
+            assertEquals(CutCounter.countScalar(sources, targets, labels, 0, numEdges), CutCounter.count(indexed, labels));
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistributedMinCutTest {
+
+    /**
+     * Worker running in a thread of the test instead of a process, which receives a range then misbehaves
+     */
+    private static class FakeWorker extends Process
+    {
+        private final Thread thread;
+
+        /**
+         * Connect to the coordinator and read the seed and a first range
+         * @param port the port of the coordinator
+         * @param hang if set to true, the worker keeps the connection open without answering, otherwise it closes it
+         */
+        FakeWorker(int port, boolean hang)
+        {
+            thread = new Thread(() -> {
+                try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+                     DataInputStream in = new DataInputStream(socket.getInputStream()))
+                {
+                    in.readLong();
+                    in.readInt();
+                    in.readInt();
+                    if (hang)
+                        Thread.sleep(Long.MAX_VALUE);
+                }
+                catch (IOException | InterruptedException e)
+                {
+                    //the fake worker ends
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        @Override
+        public OutputStream getOutputStream()
+        {
+            return OutputStream.nullOutputStream();
+        }
+
+        @Override
+        public InputStream getInputStream()
+        {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public InputStream getErrorStream()
+        {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public int waitFor() throws InterruptedException
+        {
+            thread.join();
+            return 0;
+        }
+
+        @Override
+        public boolean waitFor(long timeout, TimeUnit unit) throws InterruptedException
+        {
+            thread.join(Math.max(1, unit.toMillis(timeout)));
+            return !thread.isAlive();
+        }
+
+        @Override
+        public int exitValue()
+        {
+            if (thread.isAlive())
+                throw new IllegalThreadStateException();
+            return 0;
+        }
+
+        @Override
+        public boolean isAlive()
+        {
+            return thread.isAlive();
+        }
+
+        @Override
+        public void destroy()
+        {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Create two cliques of the given size linked by three edges, its mincut is 3
+     * @param size the number of vertices of each clique
+     * @return the graph
+     */
+    private static Graph twoCliques(int size)
+    {
+        Graph graph = new Graph();
+        for (int offset = 0; offset < 2 * size; offset += size)
+        {
+            for (int i = 0; i < size; i++)
+            {
+                for (int j = i + 1; j < size; j++)
+                    graph.addEdge(Integer.toString(offset + i), Integer.toString(offset + j));
+            }
+        }
+        for (int i = 0; i < 3; i++)
+            graph.addEdge(Integer.toString(i), Integer.toString(size + i));
+        return graph;
+    }
+
+    @Test
+    @DisplayName("test the mincut found by worker processes")
+    void testMinCutPartition() throws IOException
+    {
+        Graph graph = twoCliques(10);
+        Cut cut = new DistributedMinCut(2, 25).minCutPartition(graph, 200);
+        assertEquals(3, cut.getValue());
+        assertEquals(10, cut.getFirstSide().size());
+        assertEquals(10, cut.getSecondSide().size());
+
+        assertEquals(1, new DistributedMinCut(Runtime.getRuntime().availableProcessors() + 1, 10).workerParallelism());
+        assertEquals(Runtime.getRuntime().availableProcessors(), new DistributedMinCut(1, 10).workerParallelism());
+        assertThrows(IllegalArgumentException.class, () -> new DistributedMinCut(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new DistributedMinCut(2, 10).minCutPartition(graph, 0));
+    }
+
+    @Test
+    @DisplayName("test that the trials of a lost worker are given to the other ones")
+    void testWorkerLoss() throws IOException
+    {
+        AtomicInteger launched = new AtomicInteger();
+        DistributedMinCut coordinator = new DistributedMinCut(3, 10)
+        {
+            @Override
+            Process launchWorker(int port, Path graphFile) throws IOException
+            {
+                //the first worker is lost once it has received a range, which must be run by the other ones
+                return launched.getAndIncrement() == 0 ? new FakeWorker(port, false) : super.launchWorker(port, graphFile);
+            }
+        };
+        assertEquals(3, coordinator.minCutPartition(twoCliques(10), 200).getValue());
+        assertEquals(200, coordinator.getCompletedTrials());
+
+        DistributedMinCut noWorker = new DistributedMinCut(2, 10)
+        {
+            @Override
+            Process launchWorker(int port, Path graphFile) throws IOException
+            {
+                return super.launchWorker(port, graphFile).destroyForcibly();
+            }
+        };
+        assertThrows(IOException.class, () -> noWorker.minCutPartition(twoCliques(10), 200));
+    }
+
+    @Test
+    @DisplayName("test that a worker which does not answer in time is considered lost")
+    void testHungWorker() throws IOException
+    {
+        AtomicInteger launched = new AtomicInteger();
+        DistributedMinCut coordinator = new DistributedMinCut(2, 10)
+        {
+            @Override
+            Process launchWorker(int port, Path graphFile) throws IOException
+            {
+                //the first worker receives a range and never answers
+                return launched.getAndIncrement() == 0 ? new FakeWorker(port, true) : super.launchWorker(port, graphFile);
+            }
+
+            @Override
+            long rangeTimeoutMillis(int trials, int numEdges)
+            {
+                return 500;
+            }
+        };
+        assertEquals(3, coordinator.minCutPartition(twoCliques(10), 200).getValue());
+        assertEquals(200, coordinator.getCompletedTrials());
+
+        DistributedMinCut hungWorkers = new DistributedMinCut(2, 10)
+        {
+            @Override
+            Process launchWorker(int port, Path graphFile)
+            {
+                return new FakeWorker(port, true);
+            }
+
+            @Override
+            long rangeTimeoutMillis(int trials, int numEdges)
+            {
+                return 200;
+            }
+        };
+        assertThrows(IOException.class, () -> hungWorkers.minCutPartition(twoCliques(10), 200));
+    }
+}
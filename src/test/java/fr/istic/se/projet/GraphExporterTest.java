@@ -0,0 +1,136 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GraphExporterTest {
+
+    /**
+     * Build a square with a diagonal, a parallel edge and a loop
+     */
+    private static Graph newGraph()
+    {
+        Graph graph = new Graph();
+        graph.addEdges(new String[]{"1 -- 2", "2 -- 3", "3 -- 4", "4 -- 1", "1 -- 3", "1 -- 2", "4 -- 4"});
+        return graph;
+    }
+
+    @FunctionalInterface
+    private interface Exporter
+    {
+        void write(WritableByteChannel channel) throws IOException;
+    }
+
+    /**
+     * Return the lines written by an exporter
+     */
+    private static List<String> export(Exporter exporter) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        exporter.write(Channels.newChannel(bytes));
+        return Arrays.asList(bytes.toString(StandardCharsets.UTF_8).split("\n"));
+    }
+
+    @Test
+    @DisplayName("test that the edge list is read back as the same graph")
+    void testEdgeListRoundTrip() throws IOException
+    {
+        Graph graph = newGraph();
+        Path file = Files.createTempFile("graph", ".txt");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            GraphExporter.writeEdgeList(graph, channel);
+        }
+        assertEquals(7, Files.readAllLines(file).size());
+
+        Graph read = Graph.read(file);
+        assertEquals(graph.getVerticesSet(), read.getVerticesSet());
+        assertEquals(graph.getNumEdges(), read.getNumEdges());
+        Files.delete(file);
+    }
+
+    @Test
+    @DisplayName("test that the supernodes are written with their members")
+    void testSupernodes() throws IOException, Graph.GraphTooSmallException
+    {
+        Graph graph = newGraph();
+        graph.recordMembers();
+        graph.mergeVertices("1", "2");
+        graph.mergeVertices("(1/2)", "3");
+
+        List<String> edgeList = export(channel -> GraphExporter.writeEdgeList(graph, channel));
+        List<String> members = edgeList.stream().filter(line -> line.startsWith("#")).toList();
+        assertEquals(1, members.size());
+        String[] header = members.get(0).split(" ");
+        String name = header[1];
+        assertEquals(Set.of("1", "2", "3"), Set.of(Arrays.copyOfRange(header, 3, header.length)));
+        assertTrue(edgeList.stream().noneMatch(line -> line.contains("(")));
+        //the edges 3 -- 4 and 4 -- 1, and the loop 4 -- 4
+        assertEquals(3, edgeList.stream().filter(line -> line.contains(" -- ")).count());
+        assertTrue(edgeList.contains(name.compareTo("4") < 0 ? name + " -- 4" : "4 -- " + name));
+
+        List<String> dot = export(channel -> GraphExporter.writeDot(graph, channel));
+        assertEquals("graph G {", dot.get(0));
+        assertEquals("}", dot.get(dot.size() - 1));
+        assertTrue(dot.contains("  \"4\";"));
+        assertTrue(dot.stream().anyMatch(line -> line.startsWith("  \"" + name + "\" [label=\"") && line.contains("1") && line.contains("3")));
+        assertEquals(3, dot.stream().filter(line -> line.contains(" -- ")).count());
+    }
+
+    @Test
+    @DisplayName("test that the cuts are written with the members of their vertices")
+    void testCuts() throws IOException, Graph.GraphTooSmallException
+    {
+        Graph graph = newGraph();
+        graph.recordMembers();
+        graph.mergeVertices("1", "2");
+        Graph.Vertex merged = new Graph.Vertex("(1/2)");
+        Cut cut = new Cut(4, Set.of(merged), Set.of(new Graph.Vertex("3"), new Graph.Vertex("4")));
+        List<String> lines = export(channel -> GraphExporter.writeCut(graph, cut, channel));
+        assertEquals("value 4", lines.get(0));
+        assertEquals(Set.of("1", "2"), Set.of(lines.get(1).substring("side 1 : ".length()).split(" ")));
+        assertEquals(Set.of("3", "4"), Set.of(lines.get(2).substring("side 2 : ".length()).split(" ")));
+
+        KCut kCut = new KCut(5, List.of(Set.of(merged), Set.of(new Graph.Vertex("3")), Set.of(new Graph.Vertex("4"))));
+        lines = export(channel -> GraphExporter.writeKCut(graph, kCut, channel));
+        assertEquals(4, lines.size());
+        assertEquals("weight 5", lines.get(0));
+        assertEquals("part 3 : 4", lines.get(3));
+
+        assertThrows(IllegalArgumentException.class, () -> export(channel -> GraphExporter.writeCut(graph, null, channel)));
+        assertThrows(IllegalArgumentException.class, () -> GraphExporter.writeDot(null, Channels.newChannel(new ByteArrayOutputStream())));
+        assertThrows(IllegalArgumentException.class, () -> GraphExporter.writeEdgeList(graph, null));
+    }
+
+    @Test
+    @DisplayName("test that the labels are escaped in DOT and that the vertices which can not be exported are refused")
+    void testInvalidLabels() throws IOException
+    {
+        Graph graph = new Graph();
+        graph.addEdge("a\"b", "c\\d");
+        graph.addEdge("c\\d", "e f");
+        List<String> lines = export(channel -> GraphExporter.writeDot(graph, channel));
+        assertTrue(lines.contains("  \"a\\\"b\" -- \"c\\\\d\";"), lines.toString());
+        assertThrows(IllegalArgumentException.class, () -> export(channel -> GraphExporter.writeEdgeList(graph, channel)));
+
+        Cut cut = new Cut(1, Set.of(new Graph.Vertex("a\"b")), Set.of(new Graph.Vertex("missing")));
+        assertThrows(IllegalArgumentException.class, () -> export(channel -> GraphExporter.writeCut(graph, cut, channel)));
+        KCut kCut = new KCut(1, List.of(Set.of(new Graph.Vertex("a\"b")), Set.of(new Graph.Vertex("missing"))));
+        assertThrows(IllegalArgumentException.class, () -> export(channel -> GraphExporter.writeKCut(graph, kCut, channel)));
+    }
+}
@@ -4,6 +4,9 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 import java.util.logging.Logger;
 
@@ -122,6 +125,31 @@ class GraphTest {
         assertEquals(0, graph.getNumEdges());
     }
 
+    @Test
+    @DisplayName("Test the estimation of the memory used by the graph")
+    void testEstimateMemoryFootprint()
+    {
+        long empty = graph.estimateMemoryFootprint();
+        graph.addEdges(new String[]{"1 -- 2", "2 -- 3"});
+        long small = graph.estimateMemoryFootprint();
+        graph.addEdges(new String[]{"3 -- 4", "4 -- 5", "5 -- 1", "1 -- 3"});
+        assertTrue(empty < small);
+        assertTrue(small < graph.estimateMemoryFootprint());
+        assertTrue(graph.estimateTrialWorkingSet() < graph.estimateMemoryFootprint());
+        assertEquals(0, graph.estimateMemoryFootprint() % 8);
+    }
+
+    @Test
+    @DisplayName("Test to remove several edges at once")
+    void testRemoveSeveralEdges()
+    {
+        graph.addEdges(new String[]{"1 -- 2", "2 -- 3", "3 -- 1"});
+        assertEquals(2, graph.removeEdges(new String[]{"1 -- 2", "3 -- 2", "1 -- 4", "not an edge", null}));
+        assertEquals(2, graph.getNumEdges());
+        assertFalse(graph.contains(v2));
+        assertThrows(IllegalArgumentException.class, () -> graph.removeEdges(null));
+    }
+
     @Test
     @DisplayName("Test to remove edges not part of the graph")
     void testRemoveIllegalEdges()
@@ -278,4 +306,47 @@ class GraphTest {
 
 
 
+    @Test
+    @DisplayName("test the read method")
+    void testRead() throws IOException
+    {
+        Path file = Files.createTempFile("graph", ".txt");
+        Files.write(file, List.of("1 -- 2", "2--3", "not an edge", "", "3 -- 1"));
+        graph = Graph.read(file);
+        assertEquals(3, graph.getNumVertices());
+        assertEquals(3*2, graph.getNumEdges());
+
+        assertThrows(IOException.class, () -> Graph.read(file.resolveSibling("missing.txt")));
+        assertThrows(IllegalArgumentException.class, () -> Graph.read(null));
+    }
+
+    @Test
+    @DisplayName("test the members of the merged vertices")
+    void testGetMembers() throws Graph.GraphTooSmallException
+    {
+        graph = new Graph();
+        graph.addEdges(new String[]{"1 -- 2", "2 -- 3", "3 -- 4", "4 -- 1"});
+        assertEquals(List.of(new Graph.Vertex("1")), graph.getMembers(new Graph.Vertex("1")));
+
+        //without recording, a merged vertex is its only member
+        Graph unrecorded = new Graph(graph);
+        unrecorded.mergeVertices("1", "2");
+        assertEquals(List.of(new Graph.Vertex("(1/2)")), unrecorded.getMembers(new Graph.Vertex("(1/2)")));
+
+        graph.recordMembers();
+        graph.mergeVertices("1", "2");
+        graph.mergeVertices("(1/2)", "3");
+        Graph.Vertex merged = new Graph.Vertex("((1/2)/3)");
+        assertEquals(Set.of(new Graph.Vertex("1"), new Graph.Vertex("2"), new Graph.Vertex("3")), new HashSet<>(graph.getMembers(merged)));
+        //the recorded members are counted in the footprint
+        unrecorded.mergeVertices("(1/2)", "3");
+        assertTrue(graph.estimateMemoryFootprint() > unrecorded.estimateMemoryFootprint());
+
+        //the members are kept by the copy
+        Graph copy = new Graph(graph);
+        assertEquals(3, copy.getMembers(merged).size());
+        assertThrows(IllegalArgumentException.class, () -> graph.getMembers(new Graph.Vertex("1")));
+        assertThrows(IllegalArgumentException.class, () -> graph.getMembers(null));
+    }
+
 }
\ No newline at end of file
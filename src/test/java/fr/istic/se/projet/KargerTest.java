@@ -30,6 +30,41 @@ class KargerTest {
         }
     }
 
+    @Test
+    @DisplayName("minCut in multithreading returns -1 when interrupted before any trial ends")
+    void testInterrupted()
+    {
+        Random random = new Random(5);
+        Graph graph = new Graph();
+        for (int i = 0; i < 300; i++)
+            graph.addEdge(Integer.toString(i), Integer.toString((i + 1) % 300));
+        for (int j = 0; j < 30000; j++)
+            graph.addEdge(Integer.toString(random.nextInt(300)), Integer.toString(random.nextInt(300)));
+
+        Thread.currentThread().interrupt();
+        assertEquals(-1, Karger.minCut(graph, 10, true, 1));
+        assertTrue(Thread.interrupted());
+    }
+
+    @Test
+    @DisplayName("minCut in multithreading within a memory budget")
+    void testMemoryBudget()
+    {
+        Graph graph = new Graph();
+        graph.addEdges(new String[]{"1 -- 2", "2 -- 3", "3 -- 4", "4 -- 1", "1 -- 3"});
+        long workingSet = graph.estimateTrialWorkingSet();
+        assertTrue(workingSet > 0 && workingSet < graph.estimateMemoryFootprint());
+
+        assertEquals(1, Karger.maxConcurrentTrials(graph, 0));
+        assertEquals(3, Karger.maxConcurrentTrials(graph, 3 * workingSet + 1));
+        assertTrue(Karger.getMemoryBudget() > 0);
+
+        //a single thread at a time
+        assertEquals(2, Karger.minCut(graph, 100, true, 1));
+        assertEquals(2, Karger.minCut(graph, 100, true, 10 * workingSet));
+        assertThrows(IllegalArgumentException.class, () -> Karger.minCut(graph, 100, true, -1));
+    }
+
         @Test
         @DisplayName("minCut graph2 in sequential and multithreading")
         void testGraph2()
@@ -0,0 +1,70 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinCutCollectorTest {
+
+    @Test
+    @DisplayName("test that all the mincuts of a cycle are found once each")
+    void testAllMinCutsOfCycle()
+    {
+        //a cycle of n vertices has n(n-1)/2 mincuts of value 2, one for each pair of edges
+        Graph graph = new Graph();
+        graph.addEdges(new String[]{"1 -- 2", "2 -- 3", "3 -- 4", "4 -- 5", "5 -- 6", "6 -- 1"});
+        Map<Cut, Long> cuts = Karger.allMinCuts(graph, 2000);
+        assertEquals(15, cuts.size());
+        assertEquals(2000, cuts.values().stream().mapToLong(Long::longValue).sum());
+        for (Cut cut : cuts.keySet())
+            assertEquals(2, cut.getValue());
+
+        Long previous = Long.MAX_VALUE;
+        for (Long hits : cuts.values())
+        {
+            assertTrue(hits <= previous);
+            previous = hits;
+        }
+    }
+
+    @Test
+    @DisplayName("test the mincuts of graphs with bridges or disconnected")
+    void testTrivialMinCuts()
+    {
+        Graph graph = new Graph();
+        graph.addEdges(new String[]{"1 -- 2", "2 -- 3", "3 -- 1", "3 -- 4", "4 -- 5"});
+        Map<Cut, Long> cuts = Karger.allMinCuts(graph, 10);
+        assertEquals(2, cuts.size());
+        for (Map.Entry<Cut, Long> entry : cuts.entrySet())
+        {
+            assertEquals(1, entry.getKey().getValue());
+            assertEquals(0, (long) entry.getValue());
+        }
+
+        graph.addEdge("6", "7");
+        cuts = Karger.allMinCuts(graph, 10);
+        assertEquals(1, cuts.size());
+        assertEquals(0, cuts.keySet().iterator().next().getValue());
+
+        assertThrows(IllegalArgumentException.class, () -> Karger.allMinCuts(graph, 0));
+        assertThrows(IllegalArgumentException.class, () -> Karger.allMinCuts(null, 10));
+    }
+
+    @Test
+    @DisplayName("test that the same partition is equal whatever its side")
+    void testCutEquality()
+    {
+        Graph.Vertex a = new Graph.Vertex("a");
+        Graph.Vertex b = new Graph.Vertex("b");
+        Graph.Vertex c = new Graph.Vertex("c");
+        Cut cut = new Cut(2, Set.of(a), Set.of(b, c));
+        assertEquals(cut, new Cut(2, Set.of(b, c), Set.of(a)));
+        assertEquals(cut.hashCode(), new Cut(2, Set.of(b, c), Set.of(a)).hashCode());
+        assertNotEquals(cut, new Cut(3, Set.of(a), Set.of(b, c)));
+        assertNotEquals(cut, new Cut(2, Set.of(a, b), Set.of(c)));
+    }
+}
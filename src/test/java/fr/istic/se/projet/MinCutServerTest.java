@@ -0,0 +1,135 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinCutServerTest {
+
+    private MinCutServer server;
+    private HttpClient client;
+
+    @BeforeEach
+    void startServer() throws IOException
+    {
+        server = new MinCutServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 1, 0);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterEach
+    void stopServer()
+    {
+        server.stop(0);
+    }
+
+    /**
+     * Send a request to the server
+     * @param method the HTTP method
+     * @param path the path of the resource, with its query
+     * @param body the body of the request, can be empty
+     * @return the answer
+     */
+    private HttpResponse<String> request(String method, String path, String body) throws IOException, InterruptedException
+    {
+        return client.send(newRequest(method, path, body), HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Create a request to the server
+     * @param method the HTTP method
+     * @param path the path of the resource, with its query
+     * @param body the body of the request, can be empty
+     * @return the request
+     */
+    private HttpRequest newRequest(String method, String path, String body)
+    {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path))
+                .method(method, HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    @Test
+    @DisplayName("test the creation, update and mincut of a graph")
+    void testGraphLifecycle() throws IOException, InterruptedException
+    {
+        HttpResponse<String> response = request("PUT", "/graphs/square", "1 -- 2\n2 -- 3\n3 -- 4\n4 -- 1\n");
+        assertEquals(201, response.statusCode());
+        assertEquals("{\"vertices\":4,\"edges\":4}", response.body());
+
+        response = request("GET", "/graphs/square/mincut?iterations=50", "");
+        assertEquals(200, response.statusCode());
+        assertTrue(response.body().startsWith("{\"value\":2,"), response.body());
+
+        response = request("POST", "/graphs/square/edges", "4 -- 5\nnot an edge\n");
+        assertEquals("{\"added\":1}", response.body());
+        response = request("GET", "/graphs/square/mincut", "");
+        assertTrue(response.body().startsWith("{\"value\":1,"), response.body());
+
+        response = request("DELETE", "/graphs/square/edges", "4 -- 5\n1 -- 3\n");
+        assertEquals("{\"removed\":1}", response.body());
+        assertEquals("{\"vertices\":4,\"edges\":4}", request("GET", "/graphs/square", "").body());
+
+        assertEquals(400, request("GET", "/graphs/square/mincut?iterations=0", "").statusCode());
+        assertEquals(405, request("POST", "/graphs/square/mincut", "").statusCode());
+        assertEquals(200, request("DELETE", "/graphs/square", "").statusCode());
+        assertEquals(404, request("GET", "/graphs/square", "").statusCode());
+    }
+
+    @Test
+    @DisplayName("test that the requests are refused when the pool is full")
+    void testAdmissionControl() throws IOException, InterruptedException
+    {
+        StringBuilder edges = new StringBuilder();
+        for (int offset = 0; offset < 40; offset += 20)
+        {
+            for (int i = 0; i < 20; i++)
+            {
+                for (int j = i + 1; j < 20; j++)
+                    edges.append(offset + i).append(" -- ").append(offset + j).append('\n');
+            }
+        }
+        edges.append("0 -- 20\n1 -- 21\n");
+        request("PUT", "/graphs/cliques", edges.toString());
+
+        CompletableFuture<HttpResponse<String>> longRequest = client.sendAsync(newRequest("GET", "/graphs/cliques/mincut?iterations=300000", ""), HttpResponse.BodyHandlers.ofString());
+        Thread.sleep(300);
+        HttpResponse<String> refused = request("GET", "/graphs/cliques/mincut?iterations=10", "");
+        assertEquals(503, refused.statusCode());
+        assertTrue(refused.headers().firstValue("Retry-After").isPresent());
+        assertEquals(200, longRequest.join().statusCode());
+        assertEquals(200, request("GET", "/graphs/cliques/mincut?iterations=10", "").statusCode());
+    }
+
+    @Test
+    @DisplayName("test that an unsupported method on a graph is refused")
+    void testUnknownMethod() throws IOException, InterruptedException
+    {
+        request("PUT", "/graphs/g", "1 -- 2\n");
+        assertEquals(405, request("POST", "/graphs/g", "").statusCode());
+        assertEquals(405, request("PATCH", "/graphs/g", "").statusCode());
+        assertEquals(404, request("GET", "/graphs/g/edges/1", "").statusCode());
+    }
+
+    @Test
+    @DisplayName("test that a request failing with an unexpected exception gets a 500")
+    void testFailingRequest() throws IOException, InterruptedException
+    {
+        //removing the only edge of a vertex, which is a loop, fails in Graph.removeEdge
+        request("PUT", "/graphs/loop", "a -- a\n");
+        assertEquals(500, request("DELETE", "/graphs/loop/edges", "a -- a\n").statusCode());
+        assertEquals(200, request("GET", "/graphs/loop", "").statusCode());
+    }
+}
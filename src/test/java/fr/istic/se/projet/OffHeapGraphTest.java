@@ -0,0 +1,143 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapGraphTest {
+
+    /**
+     * Fill the graph with two cliques of the given size linked by three edges, its mincut is 3
+     * @param graph the graph to fill, with 2 * size vertices and size * (size - 1) + 3 edges
+     * @param size the number of vertices of each clique
+     */
+    private static void twoCliques(OffHeapGraph graph, int size)
+    {
+        int e = 0;
+        for (int offset = 0; offset < 2 * size; offset += size)
+        {
+            for (int i = 0; i < size; i++)
+            {
+                for (int j = i + 1; j < size; j++)
+                    graph.setEdge(e++, offset + i, offset + j);
+            }
+        }
+        for (int i = 0; i < 3; i++)
+            graph.setEdge(e++, i, size + i);
+    }
+
+    @Test
+    @DisplayName("test the minCut of a graph in direct memory")
+    void testAllocate()
+    {
+        OffHeapGraph graph = OffHeapGraph.allocate(20, 10 * 9 + 3);
+        twoCliques(graph, 10);
+        assertEquals(20, graph.getNumVertices());
+        assertEquals(93, graph.getNumEdges());
+        assertEquals(0, graph.getSource(1));
+        assertEquals(2, graph.getTarget(1));
+
+        Cut cut = Karger.minCutPartition(graph, 100);
+        assertEquals(3, cut.getValue());
+        assertEquals(10, cut.getFirstSide().size());
+        assertEquals(3, CutCounter.count(graph, cut));
+
+        assertThrows(IllegalArgumentException.class, () -> graph.setEdge(93, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> graph.setEdge(0, 0, 20));
+    }
+
+    @Test
+    @DisplayName("test a graph written to a file then mapped")
+    void testCreateAndMap() throws IOException
+    {
+        Path file = Files.createTempFile("graph", ".bin");
+        Path notAGraph = Files.createTempFile("graph", ".txt");
+        try (OffHeapGraph created = OffHeapGraph.create(file, 30, 15 * 14 + 3))
+        {
+            twoCliques(created, 15);
+            created.flush();
+
+            try (OffHeapGraph mapped = OffHeapGraph.map(file))
+            {
+                assertEquals(30, mapped.getNumVertices());
+                assertEquals(created.getNumEdges(), mapped.getNumEdges());
+                for (int e = 0; e < mapped.getNumEdges(); e++)
+                {
+                    assertEquals(created.getSource(e), mapped.getSource(e));
+                    assertEquals(created.getTarget(e), mapped.getTarget(e));
+                }
+                assertEquals(3, Karger.minCutPartition(mapped, 100).getValue());
+                assertThrows(ReadOnlyBufferException.class, () -> mapped.setEdge(0, 0, 1));
+            }
+
+            Files.writeString(notAGraph, "1 -- 2\n2 -- 3\n3 -- 1\n");
+            assertThrows(IOException.class, () -> OffHeapGraph.map(notAGraph));
+
+            //a truncated file, then a file whose first edge goes to the vertex 1000
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(notAGraph, Arrays.copyOf(bytes, bytes.length - 1));
+            assertThrows(IOException.class, () -> OffHeapGraph.map(notAGraph));
+            ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).putInt(4 * Integer.BYTES + Integer.BYTES, 1000);
+            Files.write(notAGraph, bytes);
+            assertThrows(IOException.class, () -> OffHeapGraph.map(notAGraph));
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(notAGraph);
+        }
+    }
+
+    @Test
+    @DisplayName("test the copy of a graph with its labels and the minCut of a disconnected one")
+    void testCopyOf() throws IOException
+    {
+        Graph graph = new Graph();
+        graph.addEdges(new String[]{"a -- b", "b -- c", "c -- a", "d -- e"});
+        IndexedGraph indexedGraph = new IndexedGraph(graph);
+        try (OffHeapGraph copy = OffHeapGraph.copyOf(indexedGraph))
+        {
+            assertEquals(5, copy.getNumVertices());
+            assertEquals(4, copy.getNumEdges());
+            assertEquals(indexedGraph.getVertex(3), copy.getVertex(3));
+            assertEquals(0, Karger.minCutPartition(copy, 10).getValue());
+        }
+
+        Path file = Files.createTempFile("graph", ".bin");
+        try
+        {
+            OffHeapGraph.copyOf(indexedGraph, file).close();
+            try (OffHeapGraph mapped = OffHeapGraph.map(file))
+            {
+                for (int i = 0; i < 5; i++)
+                    assertEquals(indexedGraph.getVertex(i), mapped.getVertex(i));
+                assertEquals(indexedGraph.getTarget(2), mapped.getTarget(2));
+            }
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("test that a closed graph can not be read anymore")
+    void testClose()
+    {
+        OffHeapGraph graph = OffHeapGraph.allocate(20, 10 * 9 + 3);
+        twoCliques(graph, 10);
+        assertEquals(0, graph.getSource(1));
+        graph.close();
+        assertThrows(IndexOutOfBoundsException.class, () -> graph.getSource(1));
+        graph.close();
+    }
+}
@@ -0,0 +1,83 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlantedGraphTest {
+
+    /**
+     * Check that the planted partition has the planted value, that every vertex has a degree above it,
+     * and that the Karger's algorithm finds it
+     * @param planted the graph with a planted cut
+     */
+    private static void checkPlantedCut(PlantedGraph planted)
+    {
+        EdgeList graph = planted.getGraph();
+        assertEquals(planted.getCutValue(), CutCounter.count(graph, planted.plantedLabels()));
+
+        int[] degrees = new int[graph.getNumVertices()];
+        graph.forEachEdge(0, graph.getNumEdges(), (e, source, target) -> {
+            assertNotEquals(source, target);
+            degrees[source]++;
+            degrees[target]++;
+        });
+        for (int degree : degrees)
+            assertTrue(degree > planted.getCutValue());
+
+        Cut cut = Karger.minCutPartition(graph, 300);
+        assertEquals(planted.getCutValue(), cut.getValue());
+        assertEquals(planted.getFirstSideSize(), cut.getFirstSide().size());
+    }
+
+    @Test
+    @DisplayName("test the dumbbell generator")
+    void testDumbbell() throws IOException
+    {
+        PlantedGraph planted = PlantedGraph.dumbbell(12, 3, null);
+        assertEquals(24, planted.getGraph().getNumVertices());
+        assertEquals(2 * 66 + 3, planted.getGraph().getNumEdges());
+        checkPlantedCut(planted);
+
+        assertThrows(IllegalArgumentException.class, () -> PlantedGraph.dumbbell(12, 11, null));
+        assertThrows(IllegalArgumentException.class, () -> PlantedGraph.dumbbell(2, 0, null));
+    }
+
+    @Test
+    @DisplayName("test the random regular generator, in a graph file")
+    void testRandomRegular() throws IOException
+    {
+        Path file = Files.createTempFile("planted", ".graph");
+        try (PlantedGraph planted = PlantedGraph.randomRegular(30, 6, 4, 42, file);
+             OffHeapGraph mapped = OffHeapGraph.map(file))
+        {
+            assertEquals(60, planted.getGraph().getNumVertices());
+            assertEquals(6 * 30 + 4, planted.getGraph().getNumEdges());
+            checkPlantedCut(planted);
+            assertEquals(planted.getGraph().getTarget(17), mapped.getTarget(17));
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+        assertThrows(IllegalArgumentException.class, () -> PlantedGraph.randomRegular(30, 5, 2, 42, null));
+        assertThrows(IllegalArgumentException.class, () -> PlantedGraph.randomRegular(30, 6, 6, 42, null));
+    }
+
+    @Test
+    @DisplayName("test the grid generator")
+    void testGridWithWeakLinks() throws IOException
+    {
+        PlantedGraph planted = PlantedGraph.gridWithWeakLinks(4, 5, 2, null);
+        assertEquals(40, planted.getGraph().getNumVertices());
+        assertEquals(4 * 20 + 2, planted.getGraph().getNumEdges());
+        checkPlantedCut(planted);
+
+        assertThrows(IllegalArgumentException.class, () -> PlantedGraph.gridWithWeakLinks(4, 5, 4, null));
+    }
+}
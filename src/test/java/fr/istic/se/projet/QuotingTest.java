@@ -0,0 +1,18 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuotingTest {
+
+    @Test
+    @DisplayName("test the quoting of the labels in JSON and in DOT")
+    void testQuote()
+    {
+        assertEquals("\"a\\\"b\\\\c\\u000a\"", Quoting.json("a\"b\\c\n"));
+        assertEquals("\"a\\\"b\\\\c\\n\"", Quoting.dot("a\"b\\c\r\n"));
+        assertEquals("plain", Quoting.escapeDot("plain"));
+    }
+}
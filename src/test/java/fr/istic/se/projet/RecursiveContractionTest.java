@@ -0,0 +1,134 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecursiveContractionTest {
+
+    /**
+     * Build cliques of the given size, the clique c holding the vertices "c-0" to "c-(size-1)",
+     * the vertex 0 of each clique being linked to the vertex 0 of the next one, in a ring
+     */
+    private static Graph ringOfCliques(int cliques, int size)
+    {
+        Graph graph = new Graph();
+        for (int c = 0; c < cliques; c++)
+        {
+            for (int i = 0; i < size; i++)
+                for (int j = i + 1; j < size; j++)
+                    graph.addEdge(c + "-" + i, c + "-" + j);
+            graph.addEdge(c + "-0", (c + 1) % cliques + "-0");
+        }
+        return graph;
+    }
+
+    @Test
+    @DisplayName("test that the minimum 3-way cut separates the cliques")
+    void testMinKCutOfCliques()
+    {
+        //45 vertices, enough for several levels of recursion
+        Graph graph = ringOfCliques(3, 15);
+        KCut cut = Karger.minKCut(graph, 3, 10);
+        assertEquals(3, cut.getWeight());
+        assertEquals(3, cut.getParts().size());
+
+        Set<String> cliques = new HashSet<>();
+        for (Set<Graph.Vertex> part : cut.getParts())
+        {
+            assertEquals(15, part.size());
+            Set<String> prefixes = new HashSet<>();
+            for (Graph.Vertex vertex : part)
+                prefixes.add(vertex.getLabel().split("-")[0]);
+            assertEquals(1, prefixes.size());
+            cliques.addAll(prefixes);
+        }
+        assertEquals(3, cliques.size());
+    }
+
+    @Test
+    @DisplayName("test that an iteration for 4 parts on 100 vertices stays fast")
+    void testMinKCutTime()
+    {
+        //cycle of 100 vertices with 400 random chords
+        Random random = new Random(3);
+        Graph graph = new Graph();
+        for (int i = 0; i < 100; i++)
+            graph.addEdge(Integer.toString(i), Integer.toString((i + 1) % 100));
+        for (int i = 0; i < 400; i++)
+            graph.addEdge(Integer.toString(random.nextInt(100)), Integer.toString(random.nextInt(100)));
+
+        long start = System.nanoTime();
+        KCut cut = Karger.minKCut(graph, 4, 1);
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+        assertEquals(4, cut.getParts().size());
+        assertTrue(cut.getWeight() >= 3);
+        for (Set<Graph.Vertex> part : cut.getParts())
+            assertFalse(part.isEmpty());
+    }
+
+    @Test
+    @DisplayName("test the minimum k-way cut of small graphs")
+    void testMinKCutOfSmallGraphs()
+    {
+        Graph graph = ringOfCliques(4, 3);
+        assertEquals(4, Karger.minKCut(graph, 4, 200).getWeight());
+        assertEquals(2, Karger.minKCut(graph, 2, 200).getWeight());
+
+        //every vertex alone: all the edges are cut
+        Graph triangle = new Graph();
+        triangle.addEdges(new String[]{"1 -- 2", "2 -- 3", "3 -- 1"});
+        KCut cut = Karger.minKCut(triangle, 3, 1);
+        assertEquals(3, cut.getWeight());
+        for (Set<Graph.Vertex> part : cut.getParts())
+            assertEquals(1, part.size());
+    }
+
+    @Test
+    @DisplayName("test the minimum k-way cut of a graph with enough components")
+    void testMinKCutOfDisconnectedGraph()
+    {
+        Graph graph = new Graph();
+        graph.addEdges(new String[]{"1 -- 2", "3 -- 4", "5 -- 6", "7 -- 8"});
+        KCut cut = Karger.minKCut(graph, 3, 10);
+        assertEquals(0, cut.getWeight());
+        assertEquals(3, cut.getParts().size());
+        assertEquals(8, cut.getParts().stream().mapToInt(Set::size).sum());
+
+        //two components, the third part is cut inside one of them
+        graph.addEdges(new String[]{"2 -- 3", "6 -- 7"});
+        assertEquals(1, Karger.minKCut(graph, 3, 10).getWeight());
+    }
+
+    @Test
+    @DisplayName("test that the contracted graph keeps the edges between supernodes")
+    void testContractedGraph()
+    {
+        Graph graph = new Graph();
+        graph.addEdges(new String[]{"1 -- 2", "2 -- 3", "3 -- 4", "4 -- 1", "1 -- 3"});
+        IndexedGraph indexedGraph = new IndexedGraph(graph);
+        int[] supernodes = RecursiveContraction.compact(new int[]{1, 1, 3, 3});
+        assertArrayEquals(new int[]{0, 0, 1, 1}, supernodes);
+
+        IndexedGraph contracted = RecursiveContraction.contractedGraph(indexedGraph, supernodes);
+        assertEquals(2, contracted.getNumVertices());
+        assertEquals(CutCounter.count(indexedGraph, supernodes), contracted.getNumEdges());
+    }
+
+    @Test
+    @DisplayName("test the arguments of minKCut")
+    void testMinKCutArguments()
+    {
+        Graph graph = ringOfCliques(2, 3);
+        assertThrows(IllegalArgumentException.class, () -> Karger.minKCut(null, 2, 10));
+        assertThrows(IllegalArgumentException.class, () -> Karger.minKCut(graph, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> Karger.minKCut(graph, 7, 10));
+        assertThrows(IllegalArgumentException.class, () -> Karger.minKCut(graph, 2, 0));
+    }
+}
@@ -0,0 +1,72 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SkeletonSamplingTest {
+
+    /**
+     * Create a cycle whose every edge is repeated, its mincut is twice the multiplicity
+     * @param numVertices the number of vertices of the cycle
+     * @param multiplicity the number of parallel edges between two neighbours
+     * @return the graph
+     */
+    private static OffHeapGraph heavyCycle(int numVertices, int multiplicity)
+    {
+        OffHeapGraph graph = OffHeapGraph.allocate(numVertices, numVertices * multiplicity);
+        int e = 0;
+        for (int i = 0; i < numVertices; i++)
+        {
+            for (int k = 0; k < multiplicity; k++)
+                graph.setEdge(e++, i, (i + 1) % numVertices);
+        }
+        return graph;
+    }
+
+    @Test
+    @DisplayName("test the size of a skeleton")
+    void testSample()
+    {
+        OffHeapGraph graph = heavyCycle(100, 1000);
+        IndexedGraph skeleton = SkeletonSampling.sample(graph, 0.1, 42);
+        assertEquals(100, skeleton.getNumVertices());
+        assertTrue(Math.abs(skeleton.getNumEdges() - 10000) < 500, "about 10% of the edges must be kept");
+        for (int e = 0; e < skeleton.getNumEdges(); e++)
+            assertEquals((skeleton.getSource(e) + 1) % 100, skeleton.getTarget(e));
+
+        assertEquals(graph.getNumEdges(), SkeletonSampling.sample(graph, 1, 42).getNumEdges());
+        assertEquals(SkeletonSampling.sample(graph, 0.1, 7).getNumEdges(), SkeletonSampling.sample(graph, 0.1, 7).getNumEdges());
+    }
+
+    @Test
+    @DisplayName("test the approximate mincut of a graph with a big mincut")
+    void testApproximateMinCut()
+    {
+        OffHeapGraph graph = heavyCycle(50, 2000);
+        ApproximateCut cut = Karger.approximateMinCut(graph, 0.5, 200);
+        assertTrue(cut.getSamplingProbability() < 1);
+        assertTrue(cut.getSkeletonEdges() < graph.getNumEdges() / 4);
+        assertEquals(0.5, cut.getEpsilon());
+        assertTrue(cut.getConfidence() > 0 && cut.getConfidence() < 1);
+        assertTrue(Math.abs(cut.getEstimate() - 4000) <= 0.5 * 4000, "the estimate must be within epsilon");
+        assertEquals(50, cut.getCut().getFirstSide().size() + cut.getCut().getSecondSide().size());
+    }
+
+    @Test
+    @DisplayName("test that the approximate mincut of a small graph is exact")
+    void testApproximateMinCutExact()
+    {
+        Graph graph = new Graph();
+        graph.addEdges(new String[]{"1 -- 2", "2 -- 3", "3 -- 1", "3 -- 4", "4 -- 5", "5 -- 6", "6 -- 4", "1 -- 5"});
+        ApproximateCut cut = Karger.approximateMinCut(new IndexedGraph(graph), 0.1, 100);
+        assertEquals(1.0, cut.getSamplingProbability());
+        assertEquals(0.0, cut.getEpsilon());
+        assertEquals(2, cut.getCut().getValue());
+
+        assertThrows(IllegalArgumentException.class, () -> Karger.approximateMinCut(new IndexedGraph(graph), 1, 100));
+        assertThrows(IllegalArgumentException.class, () -> Karger.approximateMinCut(new IndexedGraph(graph), 0.1, 0));
+        assertThrows(IllegalArgumentException.class, () -> Karger.approximateMinCut(null, 0.1, 100));
+    }
+}
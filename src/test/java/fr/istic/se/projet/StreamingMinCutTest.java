@@ -0,0 +1,85 @@
+package fr.istic.se.projet;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingMinCutTest {
+
+    @Test
+    @DisplayName("test that a small mincut is exact and the certificate is bounded")
+    void testSmallMinCut()
+    {
+        StreamingMinCut stream = new StreamingMinCut(5, 100, 42);
+        assertThrows(IllegalStateException.class, stream::getEstimatedMinCut);
+
+        //two cliques of 20 vertices linked by 3 edges
+        for (int offset = 0; offset < 40; offset += 20)
+        {
+            for (int i = 0; i < 20; i++)
+            {
+                for (int j = i + 1; j < 20; j++)
+                    stream.addEdge(Integer.toString(offset + i), Integer.toString(offset + j));
+            }
+        }
+        for (int i = 0; i < 3; i++)
+            stream.addEdge(Integer.toString(i), Integer.toString(20 + i));
+        stream.addEdge("0", "0");
+
+        assertEquals(40, stream.getNumVertices());
+        assertEquals(2 * 190 + 3, stream.getNumEdges());
+        assertEquals(3, stream.getEstimatedMinCut());
+        assertTrue(stream.getCertificate().getNumEdges() <= 5 * 39);
+        assertEquals(3, Karger.minCutPartition(stream.getCertificate(), 100).getValue());
+    }
+
+    @Test
+    @DisplayName("test that the mincut of a level is only found again when its certificate changes")
+    void testCachedEstimate()
+    {
+        StreamingMinCut stream = new StreamingMinCut(3, 50, 5);
+        for (int i = 0; i < 10; i++)
+            stream.addEdge(Integer.toString(i), Integer.toString((i + 1) % 10));
+        assertEquals(2, stream.getEstimatedMinCut());
+        int computations = stream.getMinCutComputations();
+        assertTrue(computations > 0);
+
+        assertEquals(2, stream.getEstimatedMinCut());
+        assertEquals(computations, stream.getMinCutComputations());
+
+        //the vertices of the cycle are already connected in the first forest, so the edge goes in the second one
+        stream.addEdge("0", "5");
+        stream.getEstimatedMinCut();
+        assertTrue(stream.getMinCutComputations() > computations);
+    }
+
+    @Test
+    @DisplayName("test the estimate of a big mincut from the sampled levels")
+    void testBigMinCut()
+    {
+        StreamingMinCut stream = new StreamingMinCut(40, 100, 7);
+        //cycle of 30 vertices whose edges are repeated 5000 times, its mincut is 10000
+        for (int k = 0; k < 5000; k++)
+        {
+            for (int i = 0; i < 30; i++)
+                stream.addEdge(Integer.toString(i), Integer.toString((i + 1) % 30));
+        }
+        long estimate = stream.getEstimatedMinCut();
+        assertTrue(estimate >= 2500 && estimate <= 40000, "the estimate must be of the order of the mincut, got " + estimate);
+        assertTrue(stream.getStoredEdges() < stream.getNumEdges() / 4);
+    }
+
+    @Test
+    @DisplayName("test the mincut of a disconnected stream")
+    void testDisconnected()
+    {
+        StreamingMinCut stream = new StreamingMinCut(3, 10);
+        stream.addEdge("1", "2");
+        stream.addEdge("3", "4");
+        assertEquals(0, stream.getEstimatedMinCut());
+
+        assertThrows(IllegalArgumentException.class, () -> stream.addEdge(null, "1"));
+        assertThrows(IllegalArgumentException.class, () -> new StreamingMinCut(0, 10));
+    }
+}